@@ -5,7 +5,16 @@
  */
 package cs2321;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import net.datastructures.List;
 
@@ -14,11 +23,79 @@ public class ArrayList<E> implements List<E> {
 	private E[] data;
 	private int size;
 	private int capacity;
+	private int minCapacity; //the array never shrinks below this on its own
+	private GrowthPolicy growth = GrowthPolicy.DOUBLING;
+	private double shrinkThreshold = 0; //0 means never shrink
+	private int modCount = 0; //bumped on every add/remove so iterators can spot changes
 
 	public ArrayList() {
-		capacity = 16;
+		this(16);
+	}
+
+	/**
+	 * Makes an empty list whose backing array can hold initialCapacity elements
+	 * before it has to grow.
+	 * 
+	 * @param initialCapacity starting size of the backing array
+	 * @throws IllegalArgumentException if initialCapacity is negative
+	 */
+	public ArrayList(int initialCapacity) throws IllegalArgumentException {
+		this(initialCapacity, GrowthPolicy.DOUBLING);
+	}
+
+	/**
+	 * Makes an empty list with the given starting capacity that grows using the
+	 * given policy.
+	 * 
+	 * @param initialCapacity starting size of the backing array
+	 * @param policy how to pick the new capacity when the array is full
+	 * @throws IllegalArgumentException if initialCapacity is negative or policy is null
+	 */
+	public ArrayList(int initialCapacity, GrowthPolicy policy) throws IllegalArgumentException {
+		if (initialCapacity < 0 || policy == null) {
+			throw new IllegalArgumentException();
+		}
+		capacity = initialCapacity;
+		minCapacity = initialCapacity;
 		data = (E[]) new Object[capacity];
 		size = 0;
+		growth = policy;
+	}
+
+	/**
+	 * Decides how big the backing array gets when it runs out of room.
+	 */
+	public interface GrowthPolicy {
+
+		/** Doubles the capacity every time */
+		GrowthPolicy DOUBLING = capacity -> capacity * 2;
+
+		/** Grows the capacity by half every time */
+		GrowthPolicy ONE_AND_A_HALF = capacity -> capacity + (capacity >> 1);
+
+		/**
+		 * Returns the capacity to move to from the current one. If the result is
+		 * not big enough for the elements that need to fit, the list uses the
+		 * required size instead.
+		 * 
+		 * @param capacity the current capacity
+		 * @return the new capacity
+		 */
+		int nextCapacity(int capacity);
+
+		/**
+		 * Grows the capacity by the same amount every time.
+		 * 
+		 * @param increment number of slots to add
+		 * @return policy that adds increment slots
+		 * @throws IllegalArgumentException if increment is not positive
+		 */
+		static GrowthPolicy fixedIncrement(int increment) throws IllegalArgumentException {
+			if (increment <= 0) {
+				throw new IllegalArgumentException();
+			}
+			return capacity -> capacity + increment;
+		}
 	}
 
 	/**
@@ -130,29 +207,20 @@ public class ArrayList<E> implements List<E> {
 			throw new IndexOutOfBoundsException();
 		}
 
-		// doubles array if trying to add past capacity
+		// grows the array if trying to add past capacity
 		if (size == capacity) {
-			int newCapacity = capacity * 2;
-			E[] newArray = (E[]) new Object[newCapacity];
-
-			for (int k = 0; k < data.length; k++) {
-				newArray[k] = data[k];
-			}
-
-			data = newArray;
-			capacity = newCapacity;
+			grow(size + 1);
 		}
 
 		// shifts elements over from the index where you add a new element
-		for (int j = size - 1; j >= i; j--) {
-			data[j + 1] = data[j];
-		}
+		System.arraycopy(data, i, data, i + 1, size - i);
 
 		// add a new element
 		data[i] = e;
 
 		// increase the size of the list
 		size++;
+		modCount++;
 
 	}
 
@@ -183,16 +251,344 @@ public class ArrayList<E> implements List<E> {
 		E objectRemoved = data[i]; //grabs data that is being removed
 
 		//overwrite the data and shrink the list
-		for (int j = i; j < size - 1; j++) {
-			data[i] = data[i + 1];
-		}
+		System.arraycopy(data, i + 1, data, i, size - i - 1);
 
 		//reflect the new size by decreasing size
 		size--; 
+		modCount++;
+		data[size] = null; //let go of the stale reference
+		shrinkIfSparse(); //give memory back if the list has drained
 
 		return objectRemoved;
 	}
 
+	/**
+	 * Inserts every element of the collection at the specified index, in the
+	 * order the collection's iterator returns them. The existing elements from
+	 * index i on are shifted over once by the size of the collection.
+	 * 
+	 * @param i
+	 *            the index at which the first new element should be stored
+	 * @param c
+	 *            the elements to be stored
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()
+	 */
+	@TimeComplexity("O(n + k)")
+	public void addAll(int i, Collection<? extends E> c) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * The n elements after i are moved once as a block, and then each of
+		 * the k new elements is written once. This makes it O(n + k) instead of
+		 * the O(n * k) of calling add k times.
+		 */
+		E[] src = (E[]) c.toArray();
+		insertRange(i, src, 0, src.length);
+	}
+
+	/**
+	 * Inserts every element of the array at the specified index.
+	 * 
+	 * @param i
+	 *            the index at which the first new element should be stored
+	 * @param a
+	 *            the elements to be stored
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()
+	 */
+	@TimeComplexity("O(n + k)")
+	public void addAll(int i, E[] a) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * Same as insertRange over the whole array
+		 */
+		insertRange(i, a, 0, a.length);
+	}
+
+	/**
+	 * Inserts the elements src[from] to src[from + length - 1] at the specified
+	 * index, shifting the elements after it over once to make room for all of
+	 * them.
+	 * 
+	 * @param i
+	 *            the index at which the first new element should be stored
+	 * @param src
+	 *            array holding the elements to be stored
+	 * @param from
+	 *            first index in src to copy
+	 * @param length
+	 *            number of elements to copy
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size(), or the range
+	 *             is not inside src
+	 */
+	@TimeComplexity("O(n + k)")
+	public void insertRange(int i, E[] src, int from, int length) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * At most one grow (copying n elements), one block shift of the n - i
+		 * elements after i, and one block copy of the k new elements.
+		 */
+		if (i < 0 || i > size || from < 0 || length < 0 || from + length > src.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (length == 0) {
+			return;
+		}
+
+		// grow once for the whole batch
+		if (size + length > capacity) {
+			grow(size + length);
+		}
+
+		System.arraycopy(data, i, data, i + length, size - i); //open a gap of the right size
+		System.arraycopy(src, from, data, i, length); //fill the gap
+
+		size += length;
+		modCount++;
+	}
+
+	/**
+	 * Removes the elements from index from (inclusive) to index to (exclusive),
+	 * shifting everything after them to the front in one move.
+	 * 
+	 * @param from
+	 *            index of the first element to remove
+	 * @param to
+	 *            index one past the last element to remove
+	 * @throws IndexOutOfBoundsException
+	 *             if from is negative, to is greater than size(), or from is
+	 *             greater than to
+	 */
+	@TimeComplexity("O(n)")
+	public void removeRange(int from, int to) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * The elements after to are moved once as a block and the freed slots at
+		 * the end are cleared, so each element is touched at most once.
+		 */
+		if (from < 0 || to > size || from > to) {
+			throw new IndexOutOfBoundsException();
+		}
+
+		System.arraycopy(data, to, data, from, size - to); //close the gap
+
+		int newSize = size - (to - from);
+		Arrays.fill(data, newSize, size, null); //let go of the stale references
+		size = newSize;
+		modCount++;
+		shrinkIfSparse();
+	}
+
+	/**
+	 * Copies the elements from index from (inclusive) to index to (exclusive)
+	 * into dst starting at dstPos. The list is not changed.
+	 * 
+	 * @param dst
+	 *            array to copy into
+	 * @param dstPos
+	 *            first index in dst to write
+	 * @param from
+	 *            index of the first element to copy
+	 * @param to
+	 *            index one past the last element to copy
+	 * @throws IndexOutOfBoundsException
+	 *             if the range is not inside the list or does not fit in dst
+	 */
+	@TimeComplexity("O(k)")
+	public void copyInto(E[] dst, int dstPos, int from, int to) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * One block copy of the k = to - from elements
+		 */
+		if (from < 0 || to > size || from > to || dstPos < 0 || dstPos + (to - from) > dst.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		System.arraycopy(data, from, dst, dstPos, to - from);
+	}
+
+	/**
+	 * Removes every element from the list. The capacity stays the same unless
+	 * shrinking is turned on.
+	 */
+	@TimeComplexity("O(n)")
+	public void clear() {
+		/*
+		 * TCJ
+		 * Each of the n slots gets nulled out so the elements can be collected
+		 */
+		Arrays.fill(data, 0, size, null);
+		size = 0;
+		modCount++;
+		shrinkIfSparse();
+	}
+
+	/**
+	 * Sorts the list in place by the given comparator. Elements that compare
+	 * equal keep their order.
+	 * 
+	 * @param c the comparator to order the elements by
+	 */
+	@TimeComplexity("O(n lg n)")
+	public void sort(Comparator<? super E> c) {
+		/*
+		 * TCJ
+		 * Merge sort on the backing array, see ArraySort.mergeSort
+		 */
+		sort(c, true);
+	}
+
+	/**
+	 * Sorts the list in place by the given comparator. A stable sort keeps
+	 * equal elements in their order but needs a temporary array of size n, the
+	 * unstable one needs no extra memory.
+	 * 
+	 * @param c the comparator to order the elements by
+	 * @param stable whether equal elements have to keep their order
+	 */
+	@TimeComplexity("O(n lg n)")
+	public void sort(Comparator<? super E> c, boolean stable) {
+		/*
+		 * TCJ
+		 * Both merge sort and the quicksort (which falls back to heap sort) are
+		 * O(n lg n) in the worst case
+		 */
+		if (stable) {
+			ArraySort.mergeSort(data, 0, size, c);
+		} else {
+			ArraySort.quickSort(data, 0, size, c);
+		}
+		modCount++;
+	}
+
+	/**
+	 * Sorts the list in place by the given comparator, using every core for
+	 * big lists. Elements that compare equal keep their order. Small lists are
+	 * sorted on the calling thread.
+	 * 
+	 * @param c the comparator to order the elements by
+	 */
+	@TimeComplexity("O(n lg n)")
+	public void parallelSort(Comparator<? super E> c) {
+		/*
+		 * TCJ
+		 * Fork/join merge sort on the backing array, see ArraySort.parallelMergeSort
+		 */
+		ArraySort.parallelMergeSort(data, 0, size, c);
+		modCount++;
+	}
+
+	/**
+	 * Returns how many elements the backing array can hold right now.
+	 * 
+	 * @return capacity of the list
+	 */
+	@TimeComplexity("O(1)")
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Makes sure the list can hold at least minCapacity elements without
+	 * growing again. Useful when the final size is known ahead of time, since
+	 * it saves all of the copies the list would make while growing.
+	 * 
+	 * @param minCapacity the number of elements that need to fit
+	 */
+	@TimeComplexity("O(n)")
+	public void ensureCapacity(int minCapacity) {
+		/*
+		 * TCJ
+		 * Either nothing happens or the n elements are copied once
+		 */
+		if (minCapacity > capacity) {
+			resize(minCapacity);
+		}
+	}
+
+	/**
+	 * Shrinks the backing array down to exactly size() slots.
+	 */
+	@TimeComplexity("O(n)")
+	public void trimToSize() {
+		/*
+		 * TCJ
+		 * The n elements are copied into a new array once
+		 */
+		if (size < capacity) {
+			resize(size);
+		}
+	}
+
+	/**
+	 * Changes how the list picks its new capacity when it is full.
+	 * 
+	 * @param policy the new growth policy
+	 * @throws IllegalArgumentException if policy is null
+	 */
+	@TimeComplexity("O(1)")
+	public void setGrowthPolicy(GrowthPolicy policy) throws IllegalArgumentException {
+		if (policy == null) {
+			throw new IllegalArgumentException();
+		}
+		growth = policy;
+	}
+
+	/**
+	 * Turns on shrinking after removals. Once size() drops to threshold times
+	 * the capacity or less, the array is cut down to twice the size (but never
+	 * below the capacity the list was made with). A list that just shrank is
+	 * half full. Since the threshold is at most a quarter, the size has to halve
+	 * again before the next shrink, and it has to double before the array is
+	 * full again. So there are always on the order of n adds or removes
+	 * between two resizes, and the list can't bounce between growing and
+	 * shrinking. A threshold of 0 turns shrinking off.
+	 * 
+	 * @param threshold fill ratio at which to shrink, in [0, 0.25]
+	 * @throws IllegalArgumentException if threshold is outside [0, 0.25]
+	 */
+	@TimeComplexity("O(1)")
+	public void setShrinkThreshold(double threshold) throws IllegalArgumentException {
+		if (!(threshold >= 0 && threshold <= 0.25)) {
+			throw new IllegalArgumentException();
+		}
+		shrinkThreshold = threshold;
+	}
+
+	/**
+	 * Makes the backing array big enough to hold at least minCapacity elements
+	 * using the growth policy, then copies everything over in one block.
+	 * 
+	 * @param minCapacity the number of elements that need to fit
+	 */
+	private void grow(int minCapacity) {
+		int newCapacity = growth.nextCapacity(capacity);
+		if (newCapacity < minCapacity) { //also catches overflow of the policy
+			newCapacity = minCapacity;
+		}
+		resize(newCapacity);
+	}
+
+	/**
+	 * Cuts the backing array down if shrinking is turned on and the list has
+	 * dropped under the threshold.
+	 */
+	private void shrinkIfSparse() {
+		if (shrinkThreshold > 0 && capacity > minCapacity && size <= capacity * shrinkThreshold) {
+			resize(Math.max(size * 2, minCapacity));
+		}
+	}
+
+	/**
+	 * Moves the elements into a new backing array of the given length.
+	 * 
+	 * @param newCapacity length of the new array, at least size()
+	 */
+	private void resize(int newCapacity) {
+		data = Arrays.copyOf(data, newCapacity);
+		capacity = newCapacity;
+	}
+
 	/**
 	 * Returns an iterator of the elements stored in the list.
 	 * 
@@ -215,6 +611,8 @@ public class ArrayList<E> implements List<E> {
 	private class myIterator implements Iterator<E> {
 
 		int cursor = 0;
+		int lastReturned = -1; //index of the element next() gave out, -1 if there is none
+		int expectedModCount = modCount;
 
 		/**
 		 * Checks if there is a next element
@@ -230,14 +628,158 @@ public class ArrayList<E> implements List<E> {
 		 * Grabs what the next element in the list is
 		 * 
 		 * @return next element in the list
+		 * @throws ConcurrentModificationException if the list was changed by
+		 *             anything other than this iterator
+		 * @throws NoSuchElementException if there are no more elements
 		 */
 		@Override
-		public E next() {
+		public E next() throws ConcurrentModificationException, NoSuchElementException {
+			checkForComodification();
+			if (cursor >= size) {
+				throw new NoSuchElementException();
+			}
 			E e = (E) data[cursor];
+			lastReturned = cursor;
 			cursor++; //move cursor to the next spot
 			return e;
 		}
 
+		/**
+		 * Removes the element last returned by next from the list
+		 * 
+		 * @throws IllegalStateException if next has not been called since the
+		 *             last remove
+		 * @throws ConcurrentModificationException if the list was changed by
+		 *             anything other than this iterator
+		 */
+		@Override
+		public void remove() throws IllegalStateException, ConcurrentModificationException {
+			if (lastReturned < 0) {
+				throw new IllegalStateException();
+			}
+			checkForComodification();
+
+			ArrayList.this.remove(lastReturned);
+			cursor = lastReturned; //everything after it moved one spot to the front
+			lastReturned = -1;
+			expectedModCount = modCount;
+		}
+
+		private void checkForComodification() throws ConcurrentModificationException {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+		}
+
+	}
+
+	/**
+	 * Returns a spliterator over the elements of the list. It knows its exact
+	 * size and splits the backing array range in half, so parallel streams can
+	 * hand each half to a different core.
+	 * 
+	 * @return spliterator of the list's elements
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public Spliterator<E> spliterator() {
+		/*
+		 * TCJ
+		 * Only records the range and the modCount, nothing is copied
+		 */
+		return new ArraySpliterator(0, size, modCount);
+	}
+
+	/**
+	 * Returns a sequential stream of the elements in the list.
+	 * 
+	 * @return stream over the list
+	 */
+	@TimeComplexity("O(1)")
+	public Stream<E> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**
+	 * Returns a parallel stream of the elements in the list. The list should not
+	 * be changed while the stream is running.
+	 * 
+	 * @return parallel stream over the list
+	 */
+	@TimeComplexity("O(1)")
+	public Stream<E> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+
+	/**
+	 * Spliterator over data[index] to data[fence - 1]. Splitting gives away the
+	 * lower half of the range. The modCount is checked after each bulk traversal
+	 * and on every tryAdvance.
+	 */
+	private class ArraySpliterator implements Spliterator<E> {
+
+		int index;
+		int fence;
+		int expectedModCount;
+
+		ArraySpliterator(int from, int to, int expectedModCount) {
+			index = from;
+			fence = to;
+			this.expectedModCount = expectedModCount;
+		}
+
+		@Override
+		public Spliterator<E> trySplit() {
+			int mid = (index + fence) >>> 1;
+			if (index >= mid) { //too small to split
+				return null;
+			}
+			ArraySpliterator prefix = new ArraySpliterator(index, mid, expectedModCount);
+			index = mid;
+			return prefix;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super E> action) {
+			if (action == null) {
+				throw new NullPointerException();
+			}
+			if (index >= fence) {
+				return false;
+			}
+			E e = data[index++];
+			action.accept(e);
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super E> action) {
+			if (action == null) {
+				throw new NullPointerException();
+			}
+			E[] a = data; //read the fields once for the whole loop
+			int hi = fence;
+			for (int i = index; i < hi; i++) {
+				action.accept(a[i]);
+			}
+			index = hi;
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+		}
+
+		@Override
+		public long estimateSize() {
+			return fence - index;
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+		}
 	}
 
 	/**
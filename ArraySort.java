@@ -0,0 +1,256 @@
+package cs2321;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sorting routines that work directly on a range of an array, used by the
+ * sort methods of {@link ArrayList}.
+ *
+ * mergeSort and parallelMergeSort are stable and need one extra array the size
+ * of the range. quickSort is not stable but needs no extra array at all.
+ */
+public class ArraySort {
+
+	/** Ranges this small are insertion sorted */
+	static final int INSERTION_THRESHOLD = 32;
+
+	/** Ranges this small are not split up any more by parallelMergeSort */
+	static final int PARALLEL_THRESHOLD = 1 << 13;
+
+	private ArraySort() {
+	}
+
+	/**
+	 * Stable insertion sort of a[lo] to a[hi - 1].
+	 */
+	@TimeComplexity("O(n^2)")
+	public static <E> void insertionSort(E[] a, int lo, int hi, Comparator<? super E> c) {
+		/*
+		 * TCJ
+		 * Each element can move past every element before it. Only used on runs
+		 * of at most INSERTION_THRESHOLD elements, where it beats the others.
+		 */
+		for (int i = lo + 1; i < hi; i++) {
+			E e = a[i];
+			int j = i - 1;
+			while (j >= lo && c.compare(a[j], e) > 0) { //strictly greater keeps equal keys in order
+				a[j + 1] = a[j];
+				j--;
+			}
+			a[j + 1] = e;
+		}
+	}
+
+	/**
+	 * Stable merge sort of a[lo] to a[hi - 1].
+	 */
+	@TimeComplexity("O(n lg n)")
+	public static <E> void mergeSort(E[] a, int lo, int hi, Comparator<? super E> c) {
+		/*
+		 * TCJ
+		 * lg n levels of merging with n element moves on each level
+		 */
+		if (hi - lo <= INSERTION_THRESHOLD) {
+			insertionSort(a, lo, hi, c);
+			return;
+		}
+		E[] aux = Arrays.copyOf(a, hi);
+		mergeSort(aux, a, lo, hi, c);
+	}
+
+	/**
+	 * Stable merge sort of a[lo] to a[hi - 1] that sorts the two halves in
+	 * parallel on the common fork/join pool until the pieces are smaller than
+	 * PARALLEL_THRESHOLD.
+	 */
+	@TimeComplexity("O(n lg n)")
+	public static <E> void parallelMergeSort(E[] a, int lo, int hi, Comparator<? super E> c) {
+		/*
+		 * TCJ
+		 * Same work as mergeSort, just spread over the cores
+		 */
+		if (hi - lo <= PARALLEL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() < 2) {
+			mergeSort(a, lo, hi, c);
+			return;
+		}
+		E[] aux = Arrays.copyOf(a, hi);
+		ForkJoinPool.commonPool().invoke(new MergeTask<E>(aux, a, lo, hi, c));
+	}
+
+	/**
+	 * Unstable in place sort of a[lo] to a[hi - 1]. Quicksort with a median of
+	 * three pivot that switches to heap sort if it recurses too deep, so the
+	 * worst case stays O(n lg n).
+	 */
+	@TimeComplexity("O(n lg n)")
+	public static <E> void quickSort(E[] a, int lo, int hi, Comparator<? super E> c) {
+		/*
+		 * TCJ
+		 * Quicksort is O(n lg n) unless the pivots keep being bad, and in that
+		 * case the depth limit hands the range to heap sort, which is always
+		 * O(n lg n).
+		 */
+		int depthLimit = 2 * (32 - Integer.numberOfLeadingZeros(Math.max(1, hi - lo)));
+		quickSort(a, lo, hi, c, depthLimit);
+	}
+
+	/*
+	 * Sorts src[lo, hi) into dest[lo, hi). Both arrays have to hold the same
+	 * elements in that range when this is called.
+	 */
+	private static <E> void mergeSort(E[] src, E[] dest, int lo, int hi, Comparator<? super E> c) {
+		if (hi - lo <= INSERTION_THRESHOLD) {
+			insertionSort(dest, lo, hi, c);
+			return;
+		}
+
+		int mid = (lo + hi) >>> 1;
+		mergeSort(dest, src, lo, mid, c); //sort each half into src
+		mergeSort(dest, src, mid, hi, c);
+		merge(src, dest, lo, mid, hi, c);
+	}
+
+	/* merges the sorted runs src[lo, mid) and src[mid, hi) into dest[lo, hi) */
+	private static <E> void merge(E[] src, E[] dest, int lo, int mid, int hi, Comparator<? super E> c) {
+		if (c.compare(src[mid - 1], src[mid]) <= 0) { //already in order, just copy
+			System.arraycopy(src, lo, dest, lo, hi - lo);
+			return;
+		}
+
+		int i = lo;
+		int j = mid;
+		for (int k = lo; k < hi; k++) {
+			if (j >= hi || (i < mid && c.compare(src[i], src[j]) <= 0)) { //ties go left, which keeps it stable
+				dest[k] = src[i++];
+			} else {
+				dest[k] = src[j++];
+			}
+		}
+	}
+
+	/**
+	 * Fork/join version of the private mergeSort
+	 */
+	private static class MergeTask<E> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final E[] src;
+		private final E[] dest;
+		private final int lo;
+		private final int hi;
+		private final Comparator<? super E> c;
+
+		MergeTask(E[] src, E[] dest, int lo, int hi, Comparator<? super E> c) {
+			this.src = src;
+			this.dest = dest;
+			this.lo = lo;
+			this.hi = hi;
+			this.c = c;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo <= PARALLEL_THRESHOLD) {
+				mergeSort(src, dest, lo, hi, c);
+				return;
+			}
+
+			int mid = (lo + hi) >>> 1;
+			invokeAll(new MergeTask<E>(dest, src, lo, mid, c), new MergeTask<E>(dest, src, mid, hi, c));
+			merge(src, dest, lo, mid, hi, c);
+		}
+	}
+
+	private static <E> void quickSort(E[] a, int lo, int hi, Comparator<? super E> c, int depthLimit) {
+		while (hi - lo > INSERTION_THRESHOLD) {
+			if (depthLimit-- == 0) {
+				heapSort(a, lo, hi, c);
+				return;
+			}
+
+			int p = partition(a, lo, hi, c);
+
+			// recurse on the smaller side and loop on the bigger one, so the stack stays O(lg n)
+			if (p - lo < hi - p - 1) {
+				quickSort(a, lo, p, c, depthLimit);
+				lo = p + 1;
+			} else {
+				quickSort(a, p + 1, hi, c, depthLimit);
+				hi = p;
+			}
+		}
+		insertionSort(a, lo, hi, c);
+	}
+
+	/* partitions a[lo, hi) around a median of three pivot and returns where the pivot ended up */
+	private static <E> int partition(E[] a, int lo, int hi, Comparator<? super E> c) {
+		int mid = (lo + hi) >>> 1;
+		int last = hi - 1;
+
+		// order a[lo], a[mid], a[last] so the median is in the middle
+		if (c.compare(a[mid], a[lo]) < 0) {
+			swap(a, mid, lo);
+		}
+		if (c.compare(a[last], a[mid]) < 0) {
+			swap(a, last, mid);
+			if (c.compare(a[mid], a[lo]) < 0) {
+				swap(a, mid, lo);
+			}
+		}
+
+		swap(a, mid, last - 1); //park the pivot next to the end
+		E pivot = a[last - 1];
+
+		int i = lo;
+		int j = last - 1;
+		while (true) {
+			while (c.compare(a[++i], pivot) < 0) {
+			}
+			while (c.compare(a[--j], pivot) > 0) {
+			}
+			if (i >= j) {
+				break;
+			}
+			swap(a, i, j);
+		}
+		swap(a, i, last - 1); //put the pivot in its final spot
+		return i;
+	}
+
+	private static <E> void heapSort(E[] a, int lo, int hi, Comparator<? super E> c) {
+		int n = hi - lo;
+		for (int i = n / 2 - 1; i >= 0; i--) {
+			siftDown(a, lo, i, n, c);
+		}
+		for (int end = n - 1; end > 0; end--) {
+			swap(a, lo, lo + end);
+			siftDown(a, lo, 0, end, c);
+		}
+	}
+
+	/* max heap sift down inside a[lo, lo + n) */
+	private static <E> void siftDown(E[] a, int lo, int i, int n, Comparator<? super E> c) {
+		E e = a[lo + i];
+		int child;
+		while ((child = 2 * i + 1) < n) {
+			if (child + 1 < n && c.compare(a[lo + child + 1], a[lo + child]) > 0) {
+				child++;
+			}
+			if (c.compare(a[lo + child], e) <= 0) {
+				break;
+			}
+			a[lo + i] = a[lo + child];
+			i = child;
+		}
+		a[lo + i] = e;
+	}
+
+	private static <E> void swap(E[] a, int i, int j) {
+		E tmp = a[i];
+		a[i] = a[j];
+		a[j] = tmp;
+	}
+}
@@ -0,0 +1,350 @@
+/**
+ * @author Giulio Vario
+ * gvario@mtu.edu
+ * CS2321
+ */
+package cs2321;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import net.datastructures.List;
+
+/**
+ * An array based list that treats its array as a ring. The first element lives
+ * at index front of the array and the rest follow it, wrapping around to the
+ * start of the array when they run off the end. This makes adding and removing
+ * at both ends O(1), so it can be used as a FIFO queue, while get and set stay
+ * O(1) like in {@link ArrayList}.
+ */
+public class CircularArrayList<E> implements List<E> {
+
+	private E[] data;
+	private int front; //array index of the element at list index 0
+	private int size;
+	private int capacity;
+
+	public CircularArrayList() {
+		this(16);
+	}
+
+	/**
+	 * Makes an empty list whose backing array can hold initialCapacity elements
+	 * before it has to grow.
+	 *
+	 * @param initialCapacity starting size of the backing array
+	 * @throws IllegalArgumentException if initialCapacity is less than 1
+	 */
+	public CircularArrayList(int initialCapacity) throws IllegalArgumentException {
+		if (initialCapacity < 1) {
+			throw new IllegalArgumentException();
+		}
+		capacity = initialCapacity;
+		data = (E[]) new Object[capacity];
+		front = 0;
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of elements in the list.
+	 *
+	 * @return number of elements in the list
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public int size() {
+		/*
+		 * TCJ
+		 * The method just returns an int variable, which is a primitive operation. This is constant time.
+		 */
+		return size;
+	}
+
+	/**
+	 * Tests whether the list is empty.
+	 *
+	 * @return true if the list is empty, false otherwise
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public boolean isEmpty() {
+		/*
+		 * TCJ
+		 * The method returns a comparison, which is a primitive operation. This is constant time
+		 */
+		return size == 0;
+	}
+
+	/**
+	 * Returns (but does not remove) the element at index i.
+	 *
+	 * @param i
+	 *            the index of the element to return
+	 * @return the element at the specified index
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()-1
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public E get(int i) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * Translating the index is a couple of primitive operations, then the
+		 * array is accessed once. This is constant time
+		 */
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		return data[slot(i)];
+	}
+
+	/**
+	 * Replaces the element at the specified index, and returns the element
+	 * previously stored.
+	 *
+	 * @param i
+	 *            the index of the element to replace
+	 * @param e
+	 *            the new element to be stored
+	 * @return the previously stored element
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()-1
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public E set(int i, E e) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * Translating the index and swapping the element are primitive
+		 * operations, so this is constant time
+		 */
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+
+		int k = slot(i);
+		E currElement = data[k]; //grab the current element
+		data[k] = e; //replace it with the new element
+
+		return currElement;
+	}
+
+	/**
+	 * Inserts the given element at the specified index of the list. Whichever
+	 * side of i has fewer elements gets shifted by one to make room.
+	 *
+	 * @param i
+	 *            the index at which the new element should be stored
+	 * @param e
+	 *            the new element to be stored
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()
+	 */
+	@TimeComplexity("O(n)")
+	@Override
+	public void add(int i, E e) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * At most n/2 elements get shifted, which happens when i is in the
+		 * middle. Adding at either end shifts nothing, which is O(1).
+		 */
+		if (i < 0 || i > size) {
+			throw new IndexOutOfBoundsException();
+		}
+
+		// doubles array if trying to add past capacity
+		if (size == capacity) {
+			grow();
+		}
+
+		if (i < size - i) {
+			// closer to the front, so move the first i elements back one spot
+			front = (front == 0) ? capacity - 1 : front - 1;
+			for (int j = 0; j < i; j++) {
+				data[slot(j)] = data[slot(j + 1)];
+			}
+		} else {
+			// closer to the back, so move the last size - i elements up one spot
+			for (int j = size; j > i; j--) {
+				data[slot(j)] = data[slot(j - 1)];
+			}
+		}
+
+		data[slot(i)] = e;
+		size++;
+	}
+
+	/**
+	 * Removes and returns the element at the given index. Whichever side of i
+	 * has fewer elements gets shifted by one to close the gap.
+	 *
+	 * @param i
+	 *            the index of the element to be removed
+	 * @return the element that had be stored at the given index
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()-1
+	 */
+	@TimeComplexity("O(n)")
+	@Override
+	public E remove(int i) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * At most n/2 elements get shifted, which happens when i is in the
+		 * middle. Removing at either end shifts nothing, which is O(1).
+		 */
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+
+		E objectRemoved = data[slot(i)]; //grabs data that is being removed
+
+		if (i < size - 1 - i) {
+			// closer to the front, so move the first i elements up one spot
+			for (int j = i; j > 0; j--) {
+				data[slot(j)] = data[slot(j - 1)];
+			}
+			data[front] = null; //let go of the stale reference
+			front = (front + 1 == capacity) ? 0 : front + 1;
+		} else {
+			// closer to the back, so move the elements after i back one spot
+			for (int j = i; j < size - 1; j++) {
+				data[slot(j)] = data[slot(j + 1)];
+			}
+			data[slot(size - 1)] = null; //let go of the stale reference
+		}
+
+		size--;
+
+		return objectRemoved;
+	}
+
+	/**
+	 * Adds an element to the start of the list
+	 *
+	 * @param e element to be added
+	 */
+	@TimeComplexity("O(1)")
+	public void addFirst(E e) {
+		/*
+		 * TCJ
+		 * The front index just moves back one spot around the ring, nothing is
+		 * shifted. Growing is amortized over the adds that filled the array.
+		 */
+		this.add(0, e);
+	}
+
+	/**
+	 * Adds an element to the end of the list
+	 *
+	 * @param e element to be added
+	 */
+	@TimeComplexity("O(1)")
+	public void addLast(E e) {
+		/*
+		 * TCJ
+		 * Adds an element to the free spot after the last one, which is a primitive
+		 * operation making this constant time.
+		 */
+		this.add(size, e);
+	}
+
+	/**
+	 * Removes the element in the first spot of the list
+	 *
+	 * @return element removed
+	 * @throws IndexOutOfBoundsException if the list is empty
+	 */
+	@TimeComplexity("O(1)")
+	public E removeFirst() throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * The front index just moves forward one spot around the ring, nothing is
+		 * shifted.
+		 */
+		return this.remove(0);
+	}
+
+	/**
+	 * Removes the element at the end of the list
+	 *
+	 * @return element removed
+	 * @throws IndexOutOfBoundsException if the list is empty
+	 */
+	@TimeComplexity("O(1)")
+	public E removeLast() throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * Getting rid of an element at the end causes no elements to be shifted
+		 * making this constant time
+		 */
+		return this.remove(size - 1);
+	}
+
+	/**
+	 * Returns an iterator of the elements stored in the list, from the first
+	 * to the last.
+	 *
+	 * @return iterator of the list's elements
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public Iterator<E> iterator() {
+		/*
+		 * TCJ
+		 * This method returns a new iterator. This is a primitive operation that
+		 * makes the best and worst case O(1).
+		 */
+		return new myIterator();
+	}
+
+	/**
+	 * Class that makes an iterator of the elements stored in the list
+	 */
+	private class myIterator implements Iterator<E> {
+
+		int cursor = 0;
+
+		@Override
+		public boolean hasNext() {
+			return cursor < size;
+		}
+
+		@Override
+		public E next() {
+			if (cursor >= size) {
+				throw new NoSuchElementException();
+			}
+			return data[slot(cursor++)];
+		}
+
+	}
+
+	/**
+	 * Turns a list index into an index of the backing array.
+	 *
+	 * @param i list index, from 0 to size()
+	 * @return array index holding that element
+	 */
+	private int slot(int i) {
+		int k = front + i;
+		return (k >= capacity) ? k - capacity : k; //wrap around the end
+	}
+
+	/**
+	 * Doubles the backing array. The elements are unrolled so the first one
+	 * ends up back at index 0.
+	 */
+	private void grow() {
+		int newCapacity = capacity * 2;
+		E[] newArray = (E[]) new Object[newCapacity];
+
+		int firstPart = Math.min(size, capacity - front); //elements before the wrap
+		System.arraycopy(data, front, newArray, 0, firstPart);
+		System.arraycopy(data, 0, newArray, firstPart, size - firstPart);
+
+		data = newArray;
+		capacity = newCapacity;
+		front = 0;
+	}
+
+}
@@ -0,0 +1,366 @@
+package cs2321;
+
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import net.datastructures.*;
+
+/**
+ * A thread safe adaptable priority queue made of several {@link HeapPQ}
+ * shards, each behind its own lock (a "MultiQueue"). Threads insert into a
+ * random shard, so producers rarely wait on each other.
+ *
+ * In relaxed mode removeMin looks at two random shards and takes the smaller
+ * of their minimums. That is not always the global minimum, but it is close
+ * to the top on average and only ever holds two locks. In strict mode min and
+ * removeMin lock every shard and return the true minimum, which is exact but
+ * serializes removals.
+ *
+ * Entries never move between shards, so remove, replaceKey and replaceValue
+ * only lock the shard the entry lives in.
+ *
+ * Course: CS2321 Section ALL
+ * @author Giulio Vario
+ */
+public class ConcurrentHeapPQ<K,V> implements AdaptablePriorityQueue<K,V> {
+
+	private HeapPQ<K, ShardEntry<K,V>>[] shards;
+	private ReentrantLock[] locks;
+	private Comparator<K> comp;
+	private boolean strict;
+	private AtomicInteger size = new AtomicInteger();
+
+	/**
+	 * Makes a relaxed PQ with two shards per processor.
+	 */
+	public ConcurrentHeapPQ() {
+		this(new DefaultComparator<K>(), 2 * Runtime.getRuntime().availableProcessors(), false);
+	}
+
+	/**
+	 * Makes a relaxed PQ with two shards per processor.
+	 *
+	 * @param c comparator for the keys
+	 */
+	public ConcurrentHeapPQ(Comparator<K> c) {
+		this(c, 2 * Runtime.getRuntime().availableProcessors(), false);
+	}
+
+	/**
+	 * @param c comparator for the keys
+	 * @param shardCount number of heaps to spread the entries over
+	 * @param strict true for exact ordering, false for the faster relaxed ordering
+	 * @throws IllegalArgumentException if shardCount is less than 1
+	 */
+	public ConcurrentHeapPQ(Comparator<K> c, int shardCount, boolean strict) throws IllegalArgumentException {
+		if(shardCount < 1) {
+			throw new IllegalArgumentException();
+		}
+		shards = newShards(shardCount);
+		locks = new ReentrantLock[shardCount];
+		for(int i = 0; i < shardCount; i++) {
+			shards[i] = new HeapPQ<K, ShardEntry<K,V>>(c, 4);
+			locks[i] = new ReentrantLock();
+		}
+		comp = c;
+		this.strict = strict;
+	}
+
+	/**
+	 * Returns the size of the PQ. Other threads may change it right after.
+	 *
+	 * @return size of PQ
+	 */
+	@TimeComplexity ("O(1)")
+	@Override
+	public int size() {
+		return size.get();
+	}
+
+	/**
+	 * Checks if the PQ is empty
+	 *
+	 * @return true if PQ is empty, otherwise false
+	 */
+	@TimeComplexity ("O(1)")
+	@Override
+	public boolean isEmpty() {
+		return size.get() == 0;
+	}
+
+	/**
+	 * Inserts a new entry into a random shard
+	 *
+	 * @param K new key
+	 * @param V new value
+	 * @return entry inserted
+	 */
+	@TimeComplexity ("O(log n)")
+	@Override
+	public Entry<K,V> insert(K key, V value) throws IllegalArgumentException {
+		/*
+		 * TCJ
+		 * One HeapPQ insert on a shard holding about n / shards entries
+		 */
+		int s = ThreadLocalRandom.current().nextInt(shards.length);
+		ShardEntry<K,V> e = new ShardEntry<K,V>(this, s, value);
+
+		locks[s].lock();
+		try {
+			e.inner = shards[s].insert(key, e);
+			size.incrementAndGet(); //counted before anyone else can remove it
+		} finally {
+			locks[s].unlock();
+		}
+
+		return e;
+	}
+
+	/**
+	 * Finds the minimum entry. In relaxed mode other threads may be changing
+	 * the shards while they are looked at, so it is only a snapshot.
+	 *
+	 * @return minimum entry, or null if the PQ is empty
+	 */
+	@TimeComplexity ("O(p)")
+	@Override
+	public Entry<K,V> min() {
+		/*
+		 * TCJ
+		 * Looks at the root of each of the p shards
+		 */
+		if(strict) {
+			lockAll();
+			try {
+				int s = minShard();
+				return (s < 0) ? null : shards[s].min().getValue();
+			} finally {
+				unlockAll();
+			}
+		}
+
+		ShardEntry<K,V> best = null;
+		K bestKey = null; //kept here, reading best.getKey() would take another shard's lock
+		for(int s = 0; s < shards.length; s++) {
+			locks[s].lock();
+			try {
+				Entry<K, ShardEntry<K,V>> m = shards[s].min();
+				if(m != null && (best == null || comp.compare(m.getKey(), bestKey) < 0)) {
+					best = m.getValue();
+					bestKey = m.getKey();
+				}
+			} finally {
+				locks[s].unlock();
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Removes a minimum entry. Exact in strict mode, the smaller of two random
+	 * shard minimums in relaxed mode.
+	 *
+	 * @return the removed entry, or null if the PQ is empty
+	 */
+	@TimeComplexity ("O(log n)")
+	@Override
+	public Entry<K,V> removeMin() {
+		/*
+		 * TCJ
+		 * Relaxed: two shard roots are compared and one HeapPQ removeMin is
+		 * done. Strict: all p roots are compared first, which is O(p + log n).
+		 */
+		ShardEntry<K,V> removed = strict ? removeMinStrict() : removeMinRelaxed();
+		if(removed != null) {
+			size.decrementAndGet();
+		}
+		return removed;
+	}
+
+	/**
+	 * Removes selected entry from its shard
+	 *
+	 * @param entry to be removed
+	 */
+	@TimeComplexity ("O(log n)")
+	@Override
+	public void remove(Entry<K,V> entry) throws IllegalArgumentException {
+		ShardEntry<K,V> e = validate(entry);
+
+		locks[e.shard].lock();
+		try {
+			shards[e.shard].remove(e.inner); //throws if the entry was already removed
+		} finally {
+			locks[e.shard].unlock();
+		}
+
+		size.decrementAndGet();
+	}
+
+	/**
+	 * Replaces key of the entry and restores heap order in its shard
+	 *
+	 * @param entry to replace key of
+	 * @param K new key
+	 */
+	@TimeComplexity ("O(log n)")
+	@Override
+	public void replaceKey(Entry<K,V> entry, K key) throws IllegalArgumentException {
+		ShardEntry<K,V> e = validate(entry);
+
+		locks[e.shard].lock();
+		try {
+			shards[e.shard].replaceKey(e.inner, key);
+		} finally {
+			locks[e.shard].unlock();
+		}
+	}
+
+	/**
+	 * Replaces the value of entry
+	 *
+	 * @param value to replace in entry
+	 * @param entry to replace value of
+	 */
+	@TimeComplexity ("O(1)")
+	@Override
+	public void replaceValue(Entry<K,V> entry, V value) throws IllegalArgumentException {
+		ShardEntry<K,V> e = validate(entry);
+
+		locks[e.shard].lock();
+		try {
+			shards[e.shard].validateEntry(e.inner); //throws if the entry was already removed
+			e.value = value;
+		} finally {
+			locks[e.shard].unlock();
+		}
+	}
+
+	private ShardEntry<K,V> removeMinStrict() {
+		lockAll();
+		try {
+			int s = minShard();
+			return (s < 0) ? null : shards[s].removeMin().getValue();
+		} finally {
+			unlockAll();
+		}
+	}
+
+	private ShardEntry<K,V> removeMinRelaxed() {
+		ThreadLocalRandom rand = ThreadLocalRandom.current();
+		int a = rand.nextInt(shards.length);
+		int b = rand.nextInt(shards.length);
+		int first = Math.min(a, b); //lock in index order so two threads can't deadlock
+		int second = Math.max(a, b);
+
+		locks[first].lock();
+		if(second != first) {
+			locks[second].lock();
+		}
+		try {
+			Entry<K, ShardEntry<K,V>> ma = shards[first].min();
+			Entry<K, ShardEntry<K,V>> mb = shards[second].min();
+			if(ma != null && (mb == null || comp.compare(ma.getKey(), mb.getKey()) <= 0)) {
+				return shards[first].removeMin().getValue();
+			}
+			if(mb != null) {
+				return shards[second].removeMin().getValue();
+			}
+		} finally {
+			if(second != first) {
+				locks[second].unlock();
+			}
+			locks[first].unlock();
+		}
+
+		//both picks were empty, so take from any shard that isn't
+		for(int s = 0; s < shards.length && size.get() > 0; s++) {
+			locks[s].lock();
+			try {
+				if(!shards[s].isEmpty()) {
+					return shards[s].removeMin().getValue();
+				}
+			} finally {
+				locks[s].unlock();
+			}
+		}
+		return null;
+	}
+
+	/* index of the shard with the smallest root, or -1 if all are empty. Caller holds every lock. */
+	private int minShard() {
+		int best = -1;
+		for(int s = 0; s < shards.length; s++) {
+			Entry<K, ShardEntry<K,V>> m = shards[s].min();
+			if(m != null && (best < 0 || comp.compare(m.getKey(), shards[best].min().getKey()) < 0)) {
+				best = s;
+			}
+		}
+		return best;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K,V> HeapPQ<K, ShardEntry<K,V>>[] newShards(int n) {
+		return (HeapPQ<K, ShardEntry<K,V>>[]) new HeapPQ<?,?>[n];
+	}
+
+	private void lockAll() {
+		for(int s = 0; s < locks.length; s++) {
+			locks[s].lock();
+		}
+	}
+
+	private void unlockAll() {
+		for(int s = locks.length - 1; s >= 0; s--) {
+			locks[s].unlock();
+		}
+	}
+
+	private ShardEntry<K,V> validate(Entry<K,V> entry) throws IllegalArgumentException {
+		if(!(entry instanceof ShardEntry)) {
+			throw new IllegalArgumentException();
+		}
+		ShardEntry<K,V> e = (ShardEntry<K,V>) entry;
+		if(e.owner != this) {
+			throw new IllegalArgumentException();
+		}
+		return e;
+	}
+
+	/**
+	 * The handle handed out by insert. It is stored as the value inside its
+	 * shard, and keeps a pointer to the shard's own entry so the key can be
+	 * read and the entry found again. getKey takes the shard's lock, so it sees
+	 * the latest replaceKey.
+	 */
+	static class ShardEntry<K,V> implements Entry<K,V> {
+		private final ConcurrentHeapPQ<K,V> owner;
+		private final int shard;
+		private volatile Entry<K, ShardEntry<K,V>> inner;
+		private volatile V value;
+
+		ShardEntry(ConcurrentHeapPQ<K,V> owner, int shard, V value) {
+			this.owner = owner;
+			this.shard = shard;
+			this.value = value;
+		}
+
+		@Override
+		public K getKey() {
+			ReentrantLock lock = owner.locks[shard];
+			lock.lock();
+			try {
+				return inner.getKey();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		@Override
+		public V getValue() {
+			return value;
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package cs2321;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+import net.datastructures.AdaptablePriorityQueue;
+
+/**
+ * Measures insert/removeMin throughput from 1 up to 2x the core count threads
+ * for a HeapPQ behind one global lock, and for ConcurrentHeapPQ in strict and
+ * relaxed mode.
+ */
+public class ConcurrentHeapPQBenchmark {
+
+	private static final int OPS_PER_THREAD = 200000;
+	private static final int PRELOAD = 100000;
+
+	/**
+	 * HeapPQ with every call behind one lock, which is what callers do today.
+	 */
+	static class LockedHeapPQ<K,V> extends HeapPQ<K,V> {
+		@Override
+		public synchronized net.datastructures.Entry<K,V> insert(K key, V value) {
+			return super.insert(key, value);
+		}
+
+		@Override
+		public synchronized net.datastructures.Entry<K,V> removeMin() {
+			return super.removeMin();
+		}
+	}
+
+	/**
+	 * Each thread alternates an insert with a removeMin.
+	 *
+	 * @return millions of operations per second over all threads
+	 */
+	static double run(AdaptablePriorityQueue<Integer,Integer> pq, int threads) throws InterruptedException {
+		for (int i = 0; i < PRELOAD; i++) {
+			pq.insert(ThreadLocalRandom.current().nextInt(), i);
+		}
+
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			workers[t] = new Thread(() -> {
+				ThreadLocalRandom rand = ThreadLocalRandom.current();
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				for (int k = 0; k < OPS_PER_THREAD; k += 2) {
+					pq.insert(rand.nextInt(), k);
+					pq.removeMin();
+				}
+			});
+			workers[t].start();
+		}
+
+		long begin = System.nanoTime();
+		start.countDown();
+		for (Thread w : workers) {
+			w.join();
+		}
+		long elapsed = System.nanoTime() - begin;
+
+		return (double) threads * OPS_PER_THREAD / elapsed * 1000;
+	}
+
+	@TimeComplexity("O(?)")
+	public static void main(String[] args) throws InterruptedException {
+		int cores = Runtime.getRuntime().availableProcessors();
+		System.out.printf("%8s %16s %16s %16s%n", "threads", "locked HeapPQ", "strict", "relaxed");
+
+		for (int threads = 1; threads <= 2 * cores; threads *= 2) {
+			double locked = run(new LockedHeapPQ<Integer,Integer>(), threads);
+			double strict = run(new ConcurrentHeapPQ<Integer,Integer>(new DefaultComparator<Integer>(), 2 * cores, true), threads);
+			double relaxed = run(new ConcurrentHeapPQ<Integer,Integer>(new DefaultComparator<Integer>(), 2 * cores, false), threads);
+
+			System.out.printf("%8d %11.2f Mop/s %11.2f Mop/s %11.2f Mop/s%n", threads, locked, strict, relaxed);
+		}
+	}
+}
@@ -0,0 +1,280 @@
+/**
+ * @author Giulio Vario
+ * gvario@mtu.edu
+ * CS2321
+ */
+package cs2321;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import net.datastructures.List;
+
+/**
+ * A thread safe array list for tables that are read far more often than they
+ * are changed. Every change makes a new copy of the array and then publishes it
+ * through a volatile field, so reads never take a lock.
+ *
+ * Memory visibility: a write to the array field happens-before every read that
+ * sees the new array, so a reader sees every element the writer stored before
+ * publishing it. Writers are serialized on a lock, so no change is lost.
+ * Iterators walk the array that was current when they were made and never see
+ * later changes (and never throw ConcurrentModificationException).
+ */
+public class CopyOnWriteList<E> implements List<E> {
+
+	private volatile E[] data; //always exactly size() long, never changed once published
+	private final Object lock = new Object();
+
+	public CopyOnWriteList() {
+		data = (E[]) new Object[0];
+	}
+
+	/**
+	 * Returns the number of elements in the list.
+	 *
+	 * @return number of elements in the list
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public int size() {
+		/*
+		 * TCJ
+		 * One volatile read and a length lookup. This is constant time.
+		 */
+		return data.length;
+	}
+
+	/**
+	 * Tests whether the list is empty.
+	 *
+	 * @return true if the list is empty, false otherwise
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public boolean isEmpty() {
+		/*
+		 * TCJ
+		 * The method returns a comparison, which is a primitive operation. This is constant time
+		 */
+		return data.length == 0;
+	}
+
+	/**
+	 * Returns (but does not remove) the element at index i. Never blocks.
+	 *
+	 * @param i
+	 *            the index of the element to return
+	 * @return the element at the specified index
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()-1
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public E get(int i) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * One volatile read of the array and one array access. This is constant time
+		 */
+		E[] a = data; //read the field once so the bounds check and the read agree
+		if (i < 0 || i >= a.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		return a[i];
+	}
+
+	/**
+	 * Replaces the element at the specified index, and returns the element
+	 * previously stored.
+	 *
+	 * @param i
+	 *            the index of the element to replace
+	 * @param e
+	 *            the new element to be stored
+	 * @return the previously stored element
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()-1
+	 */
+	@TimeComplexity("O(n)")
+	@Override
+	public E set(int i, E e) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * The whole array is copied so readers holding the old one are not
+		 * affected, which is n element copies.
+		 */
+		synchronized (lock) {
+			E[] a = data;
+			if (i < 0 || i >= a.length) {
+				throw new IndexOutOfBoundsException();
+			}
+
+			E currElement = a[i];
+			E[] copy = a.clone();
+			copy[i] = e;
+			data = copy; //publish
+
+			return currElement;
+		}
+	}
+
+	/**
+	 * Inserts the given element at the specified index of the list.
+	 *
+	 * @param i
+	 *            the index at which the new element should be stored
+	 * @param e
+	 *            the new element to be stored
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()
+	 */
+	@TimeComplexity("O(n)")
+	@Override
+	public void add(int i, E e) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * The n old elements are copied into a new array one longer, in two
+		 * blocks around index i.
+		 */
+		synchronized (lock) {
+			E[] a = data;
+			if (i < 0 || i > a.length) {
+				throw new IndexOutOfBoundsException();
+			}
+
+			E[] copy = (E[]) new Object[a.length + 1];
+			System.arraycopy(a, 0, copy, 0, i);
+			System.arraycopy(a, i, copy, i + 1, a.length - i);
+			copy[i] = e;
+			data = copy; //publish
+		}
+	}
+
+	/**
+	 * Removes and returns the element at the given index.
+	 *
+	 * @param i
+	 *            the index of the element to be removed
+	 * @return the element that had be stored at the given index
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()-1
+	 */
+	@TimeComplexity("O(n)")
+	@Override
+	public E remove(int i) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * The other n - 1 elements are copied into a new array in two blocks
+		 */
+		synchronized (lock) {
+			E[] a = data;
+			if (i < 0 || i >= a.length) {
+				throw new IndexOutOfBoundsException();
+			}
+
+			E objectRemoved = a[i];
+			E[] copy = (E[]) new Object[a.length - 1];
+			System.arraycopy(a, 0, copy, 0, i);
+			System.arraycopy(a, i + 1, copy, i, a.length - i - 1);
+			data = copy; //publish
+
+			return objectRemoved;
+		}
+	}
+
+	/**
+	 * Adds an element to the start of the list
+	 *
+	 * @param e element to be added
+	 */
+	@TimeComplexity("O(n)")
+	public void addFirst(E e) {
+		this.add(0, e);
+	}
+
+	/**
+	 * Adds an element to the end of the list. The size is read under the lock
+	 * so two threads adding at the same time both end up at the end.
+	 *
+	 * @param e element to be added
+	 */
+	@TimeComplexity("O(n)")
+	public void addLast(E e) {
+		/*
+		 * TCJ
+		 * Still copies the n elements into a new array
+		 */
+		synchronized (lock) {
+			this.add(data.length, e);
+		}
+	}
+
+	/**
+	 * Removes the element in the first spot of the list
+	 *
+	 * @return element removed
+	 * @throws IndexOutOfBoundsException if the list is empty
+	 */
+	@TimeComplexity("O(n)")
+	public E removeFirst() throws IndexOutOfBoundsException {
+		return this.remove(0);
+	}
+
+	/**
+	 * Removes the element at the end of the list
+	 *
+	 * @return element removed
+	 * @throws IndexOutOfBoundsException if the list is empty
+	 */
+	@TimeComplexity("O(n)")
+	public E removeLast() throws IndexOutOfBoundsException {
+		synchronized (lock) {
+			return this.remove(data.length - 1);
+		}
+	}
+
+	/**
+	 * Returns an iterator over the elements the list held when this method was
+	 * called. Later changes to the list do not show up in it.
+	 *
+	 * @return snapshot iterator of the list's elements
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public Iterator<E> iterator() {
+		/*
+		 * TCJ
+		 * The current array can't change, so the iterator just keeps a
+		 * reference to it. Nothing is copied.
+		 */
+		return new SnapshotIterator<E>(data);
+	}
+
+	/**
+	 * Iterator over an array that no one will change
+	 */
+	private static class SnapshotIterator<E> implements Iterator<E> {
+
+		private final E[] snapshot;
+		private int cursor = 0;
+
+		SnapshotIterator(E[] snapshot) {
+			this.snapshot = snapshot;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return cursor < snapshot.length;
+		}
+
+		@Override
+		public E next() {
+			if (cursor >= snapshot.length) {
+				throw new NoSuchElementException();
+			}
+			return snapshot[cursor++];
+		}
+
+	}
+
+}
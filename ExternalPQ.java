@@ -0,0 +1,518 @@
+package cs2321;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+
+import net.datastructures.*;
+
+/**
+ * A priority queue that can hold more entries than fit in memory. New entries
+ * go into a {@link HeapPQ} (the hot tier). Once the hot tier holds hotLimit
+ * entries, all of them are drained in key order and written out as one sorted
+ * run to a file. Keys and values are turned into bytes by a
+ * {@link RecordCodec} each.
+ *
+ * removeMin merges the runs lazily. A small second HeapPQ holds the next
+ * entry of every run, keyed by that entry's key, and the minimum is whichever
+ * of that heap and the hot tier has the smaller key. Runs are written front to
+ * back through a buffer and read front to back through a memory mapped window
+ * of at most WINDOW_BYTES, so all disk I/O is sequential. A run's file is
+ * deleted as soon as it has been read to the end.
+ *
+ * There are never more than fanIn runs. When a spill would make one more,
+ * some runs are merged into one new run first. Every run has a level: 0 for
+ * a spilled run, one more than the highest level it was merged from for a
+ * merged run. The merge takes the runs on the lowest level (adding the next
+ * level up if there is only one), so runs of about the same size get merged
+ * together, and each entry is only copied O(log n) times, like a tiered
+ * merge sort. Memory stays at O(hotLimit + fanIn) entries on the Java heap
+ * plus at most fanIn mapped windows, and no file is kept open between calls.
+ *
+ * Entries that come back from a run are new objects, so this is a plain
+ * PriorityQueue, not an adaptable one.
+ *
+ * Course: CS2321 Section ALL
+ * @author Giulio Vario
+ */
+public class ExternalPQ<K,V> implements PriorityQueue<K,V>, Closeable {
+
+	/** Fan-in used unless setFanIn is called */
+	public static final int DEFAULT_FAN_IN = 64;
+
+	/** Upper bound on the bytes of a run that are mapped at once */
+	public static final int WINDOW_BYTES = 1 << 20;
+
+	/* size of the buffer runs are written through */
+	static final int WRITE_BUFFER_BYTES = 1 << 16;
+
+	private HeapPQ<K,V> hot;
+	private HeapPQ<K,Run<K,V>> heads; //the next entry of every run that still has some
+	private ArrayList<Run<K,V>> runs; //the same runs, in no particular order
+	private Comparator<K> comp;
+	private RecordCodec<Entry<K,V>> codec;
+	private Path dir;
+	private int hotLimit;
+	private int fanIn = DEFAULT_FAN_IN;
+	private long spilledSize; //entries in runs that have not been removed yet
+
+	/**
+	 * Makes an empty queue using the keys' natural order.
+	 *
+	 * @param hotLimit most entries kept in memory before spilling a run
+	 * @param keyCodec turns keys into bytes
+	 * @param valueCodec turns values into bytes
+	 * @param dir directory for the run files
+	 * @throws IllegalArgumentException if hotLimit is less than 1
+	 */
+	public ExternalPQ(int hotLimit, RecordCodec<K> keyCodec, RecordCodec<V> valueCodec, Path dir)
+			throws IllegalArgumentException {
+		this(new DefaultComparator<K>(), hotLimit, keyCodec, valueCodec, dir);
+	}
+
+	/**
+	 * Makes an empty queue.
+	 *
+	 * @param c comparator for the keys
+	 * @param hotLimit most entries kept in memory before spilling a run
+	 * @param keyCodec turns keys into bytes
+	 * @param valueCodec turns values into bytes
+	 * @param dir directory for the run files
+	 * @throws IllegalArgumentException if hotLimit is less than 1 or a record
+	 *             is bigger than WINDOW_BYTES
+	 */
+	public ExternalPQ(Comparator<K> c, int hotLimit, RecordCodec<K> keyCodec, RecordCodec<V> valueCodec, Path dir)
+			throws IllegalArgumentException {
+		codec = new EntryCodec<K,V>(keyCodec, valueCodec);
+		if(hotLimit < 1 || codec.recordSize() <= 0 || codec.recordSize() > WINDOW_BYTES) {
+			throw new IllegalArgumentException();
+		}
+		comp = c;
+		hot = new HeapPQ<K,V>(c);
+		heads = new HeapPQ<K,Run<K,V>>(c);
+		runs = new ArrayList<Run<K,V>>();
+		this.dir = dir;
+		this.hotLimit = hotLimit;
+		spilledSize = 0;
+	}
+
+	/**
+	 * Returns the size of the PQ, counting the entries on disk
+	 *
+	 * @return size of PQ
+	 */
+	@TimeComplexity ("O(1)")
+	@Override
+	public int size() {
+		return (int) Math.min(hot.size() + spilledSize, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Checks if the PQ is empty
+	 *
+	 * @return true if PQ is empty, otherwise false
+	 */
+	@TimeComplexity ("O(1)")
+	@Override
+	public boolean isEmpty() {
+		return hot.isEmpty() && spilledSize == 0;
+	}
+
+	/**
+	 * Inserts a new entry into the hot tier, first spilling the hot tier to a
+	 * run if it is full.
+	 *
+	 * @param K new key
+	 * @param V new value
+	 * @return entry inserted
+	 * @throws UncheckedIOException if a run file can't be written
+	 */
+	@TimeComplexity ("O(log n)")
+	@Override
+	public Entry<K,V> insert(K key, V value) throws IllegalArgumentException {
+		/*
+		 * TCJ
+		 * An insert into a heap of at most hotLimit entries. A spill costs
+		 * O(hotLimit log hotLimit) but only happens once every hotLimit inserts,
+		 * and the merges it sets off are paid for the same way.
+		 */
+		if(hot.size() >= hotLimit) {
+			spill();
+		}
+		return hot.insert(key, value);
+	}
+
+	/**
+	 * Finds the minimum entry, in the hot tier or at the front of a run
+	 *
+	 * @return minimum entry, or null if the PQ is empty
+	 */
+	@TimeComplexity ("O(1)")
+	@Override
+	public Entry<K,V> min() {
+		Entry<K,Run<K,V>> r = heads.min();
+		if(r == null || fromHot(r)) {
+			return hot.min();
+		}
+		return r.getValue().head;
+	}
+
+	/**
+	 * Removes the minimum entry. If it came from a run, that run moves on to
+	 * its next record.
+	 *
+	 * @return the removed entry, or null if the PQ is empty
+	 * @throws UncheckedIOException if a run file can't be read or deleted
+	 */
+	@TimeComplexity ("O(log n)")
+	@Override
+	public Entry<K,V> removeMin() {
+		/*
+		 * TCJ
+		 * One removeMin from the hot tier, or one record read plus one replaceKey
+		 * in the heap of run heads, which holds at most fanIn entries
+		 */
+		Entry<K,Run<K,V>> r = heads.min();
+		if(r == null || fromHot(r)) {
+			return hot.removeMin();
+		}
+
+		Run<K,V> run = r.getValue();
+		Entry<K,V> removed = run.head;
+		spilledSize--;
+		if(run.advance()) {
+			heads.replaceKey(r, run.head.getKey());
+		} else { //the run is used up
+			heads.removeMin();
+			dropRun(run);
+		}
+		return removed;
+	}
+
+	/**
+	 * Writes everything in the hot tier out as one sorted run, leaving the hot
+	 * tier empty. If that makes more than fanIn runs, the runs are merged down
+	 * first.
+	 *
+	 * @throws UncheckedIOException if a run file can't be written
+	 */
+	@TimeComplexity ("O(n log n)")
+	public void spill() {
+		/*
+		 * TCJ
+		 * Draining the hot tier in order is O(n log n), writing it is O(n)
+		 */
+		if(hot.isEmpty()) {
+			return;
+		}
+		while(runs.size() >= fanIn) {
+			mergeRuns();
+		}
+		ArrayList<Entry<K,V>> sorted = hot.drainSorted();
+		RunWriter<K,V> writer = new RunWriter<K,V>(codec, dir);
+		for(int i = 0; i < sorted.size(); i++) {
+			writer.write(sorted.get(i));
+		}
+		spilledSize += sorted.size();
+		addRun(writer.finish());
+	}
+
+	/**
+	 * Sets the most runs that may exist at once. Lowering it takes effect at
+	 * the next spill.
+	 *
+	 * @param fanIn most runs, at least 2
+	 * @throws IllegalArgumentException if fanIn is less than 2
+	 */
+	@TimeComplexity ("O(1)")
+	public void setFanIn(int fanIn) throws IllegalArgumentException {
+		if(fanIn < 2) {
+			throw new IllegalArgumentException();
+		}
+		this.fanIn = fanIn;
+	}
+
+	/**
+	 * Returns the number of runs on disk that still have entries
+	 *
+	 * @return number of runs
+	 */
+	@TimeComplexity ("O(1)")
+	public int runCount() {
+		return runs.size();
+	}
+
+	/**
+	 * Empties the queue and deletes every run file.
+	 *
+	 * @throws IOException if a run file can't be deleted
+	 */
+	@Override
+	public void close() throws IOException {
+		while(!runs.isEmpty()) {
+			Run<K,V> run = runs.removeLast();
+			run.window = null;
+			Files.deleteIfExists(run.file);
+		}
+		heads = new HeapPQ<K,Run<K,V>>(comp);
+		hot = new HeapPQ<K,V>(comp);
+		spilledSize = 0;
+	}
+
+	/* true if the hot tier's minimum is no bigger than the smallest run head r */
+	private boolean fromHot(Entry<K,Run<K,V>> r) {
+		Entry<K,V> h = hot.min();
+		return h != null && comp.compare(h.getKey(), r.getKey()) <= 0;
+	}
+
+	/* merges the runs on the lowest levels into one, see the class comment */
+	private void mergeRuns() {
+		//find the lowest level that, together with the ones below it, has at least two runs
+		int level = Integer.MAX_VALUE;
+		for(int i = 0; i < runs.size(); i++) {
+			level = Math.min(level, runs.get(i).level);
+		}
+		while(countUpTo(level) < 2) {
+			int next = Integer.MAX_VALUE;
+			for(int i = 0; i < runs.size(); i++) {
+				if(runs.get(i).level > level) {
+					next = Math.min(next, runs.get(i).level);
+				}
+			}
+			level = next;
+		}
+
+		//take those runs out of the run list and the head heap, and merge through a heap of their own
+		HeapPQ<K,Run<K,V>> merging = new HeapPQ<K,Run<K,V>>(comp);
+		int mergedLevel = 0;
+		int kept = 0;
+		for(int i = 0; i < runs.size(); i++) {
+			Run<K,V> run = runs.get(i);
+			if(run.level <= level) {
+				heads.remove(run.handle);
+				merging.insert(run.head.getKey(), run);
+				mergedLevel = Math.max(mergedLevel, run.level + 1);
+			} else {
+				runs.set(kept, run);
+				run.slot = kept++;
+			}
+		}
+		runs.removeRange(kept, runs.size());
+
+		RunWriter<K,V> writer = new RunWriter<K,V>(codec, dir);
+		while(!merging.isEmpty()) {
+			Entry<K,Run<K,V>> r = merging.min();
+			Run<K,V> run = r.getValue();
+			writer.write(run.head);
+			if(run.advance()) {
+				merging.replaceKey(r, run.head.getKey());
+			} else {
+				merging.removeMin();
+				run.delete();
+			}
+		}
+		Run<K,V> merged = writer.finish();
+		merged.level = mergedLevel;
+		addRun(merged);
+	}
+
+	/* number of runs at the given level or below */
+	private int countUpTo(int level) {
+		int count = 0;
+		for(int i = 0; i < runs.size(); i++) {
+			if(runs.get(i).level <= level) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/* reads the first record of a new run and puts it in the head heap */
+	private void addRun(Run<K,V> run) {
+		run.advance();
+		run.slot = runs.size();
+		runs.addLast(run);
+		run.handle = heads.insert(run.head.getKey(), run);
+	}
+
+	/* takes a used up run out of the run list and deletes its file */
+	private void dropRun(Run<K,V> run) {
+		Run<K,V> last = runs.removeLast();
+		if(last != run) {
+			runs.set(run.slot, last);
+			last.slot = run.slot;
+		}
+		run.delete();
+	}
+
+	/**
+	 * Writes one sorted run to a new file through a fixed buffer.
+	 */
+	static class RunWriter<K,V> {
+		private RecordCodec<Entry<K,V>> codec;
+		private Path file;
+		private FileChannel channel;
+		private ByteBuffer buf;
+		private long count = 0;
+
+		RunWriter(RecordCodec<Entry<K,V>> codec, Path dir) throws UncheckedIOException {
+			this.codec = codec;
+			int rs = codec.recordSize();
+			buf = ByteBuffer.allocate(Math.max(rs, WRITE_BUFFER_BYTES / rs * rs));
+			try {
+				file = Files.createTempFile(dir, "run", ".bin");
+				channel = FileChannel.open(file, StandardOpenOption.WRITE);
+			} catch(IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		void write(Entry<K,V> e) throws UncheckedIOException {
+			if(buf.remaining() < codec.recordSize()) {
+				flush();
+			}
+			codec.write(buf, buf.position(), e);
+			buf.position(buf.position() + codec.recordSize());
+			count++;
+		}
+
+		/* writes out what is left and closes the file, which is exactly count records long */
+		Run<K,V> finish() throws UncheckedIOException {
+			flush();
+			try {
+				channel.close();
+			} catch(IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return new Run<K,V>(codec, file, count);
+		}
+
+		private void flush() throws UncheckedIOException {
+			buf.flip();
+			try {
+				while(buf.hasRemaining()) {
+					channel.write(buf);
+				}
+			} catch(IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			buf.clear();
+		}
+	}
+
+	/**
+	 * One sorted run in its own file, read front to back through a mapped
+	 * window that only covers records not read yet.
+	 */
+	static class Run<K,V> {
+		private RecordCodec<Entry<K,V>> codec;
+		private Path file;
+		private long count; //records in the file
+		private long cursor = 0; //next record to read
+		private ByteBuffer window; //mapped part of the file
+		private long windowStart; //record the window starts at
+		private int windowRecords;
+		private Entry<K,V> head; //the next entry to hand out
+		private Entry<K,Run<K,V>> handle; //this run's entry in the head heap
+		private int slot; //where it is in the run list
+		private int level = 0; //0 for a spilled run, see mergeRuns
+
+		Run(RecordCodec<Entry<K,V>> codec, Path file, long count) {
+			this.codec = codec;
+			this.file = file;
+			this.count = count;
+		}
+
+		/* reads the next record into head, returns false once there are none left */
+		boolean advance() throws UncheckedIOException {
+			if(cursor == count) {
+				head = null;
+				window = null;
+				return false;
+			}
+			int rs = codec.recordSize();
+			if(window == null || cursor - windowStart == windowRecords) { //map the next part of the file
+				windowRecords = (int) Math.min(count - cursor, WINDOW_BYTES / rs);
+				windowStart = cursor;
+				try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+					window = channel.map(FileChannel.MapMode.READ_ONLY, cursor * rs, (long) windowRecords * rs);
+				} catch(IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+			head = codec.read(window, (int) (cursor - windowStart) * rs);
+			cursor++;
+			return true;
+		}
+
+		void delete() throws UncheckedIOException {
+			window = null;
+			head = null;
+			try {
+				Files.deleteIfExists(file);
+			} catch(IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * An entry read back from a run. It can't be changed.
+	 */
+	static class SpilledEntry<K,V> implements Entry<K,V> {
+		private final K key;
+		private final V value;
+
+		SpilledEntry(K key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		public K getKey() {
+			return key;
+		}
+
+		@Override
+		public V getValue() {
+			return value;
+		}
+	}
+
+	/**
+	 * Stores an entry as its key's record followed by its value's record.
+	 */
+	static class EntryCodec<K,V> implements RecordCodec<Entry<K,V>> {
+		private RecordCodec<K> keys;
+		private RecordCodec<V> values;
+
+		EntryCodec(RecordCodec<K> keys, RecordCodec<V> values) {
+			this.keys = keys;
+			this.values = values;
+		}
+
+		@Override
+		public int recordSize() {
+			return keys.recordSize() + values.recordSize();
+		}
+
+		@Override
+		public void write(ByteBuffer buf, int offset, Entry<K,V> e) {
+			keys.write(buf, offset, e.getKey());
+			values.write(buf, offset + keys.recordSize(), e.getValue());
+		}
+
+		@Override
+		public Entry<K,V> read(ByteBuffer buf, int offset) {
+			K key = keys.read(buf, offset);
+			V value = values.read(buf, offset + keys.recordSize());
+			return new SpilledEntry<K,V>(key, value);
+		}
+	}
+}
@@ -0,0 +1,267 @@
+package cs2321;
+
+import java.util.Comparator;
+
+/**
+ * Operation counters for a {@link HeapPQ}. For each kind of operation it keeps
+ * how many there were, how many key comparisons and entry moves they made, how
+ * deep their deepest single sift went, and a latency histogram.
+ *
+ * A heapify that runs in the middle of another operation (a lazy remove that
+ * compacts the heap, for one) is recorded as its own HEAPIFY operation. Its
+ * comparisons, moves and sifts are not counted again under the operation that
+ * caused it, only its time is.
+ *
+ * The histogram is log-linear like HdrHistogram: values are grouped by their
+ * highest set bit, and each of those ranges is split into 8 sub-buckets, so
+ * every recorded latency is off by at most 12.5%, using only 512 counters per
+ * operation.
+ *
+ * Metrics are turned on with {@link HeapPQ#enableMetrics()}. While they are
+ * off the heap keeps no reference to this class, so it costs a null check per
+ * operation and nothing else. Like HeapPQ, this class is not thread safe.
+ */
+public class HeapMetrics {
+
+	/** The operations that are measured */
+	public enum Op { INSERT, REMOVE_MIN, REMOVE, REPLACE_KEY, HEAPIFY }
+
+	/**
+	 * Gets a callback after every measured operation.
+	 */
+	public interface Listener {
+		/**
+		 * @param op which operation finished
+		 * @param comparisons key comparisons it made
+		 * @param moves entries it moved inside the heap
+		 * @param depth levels its deepest single sift went through
+		 * @param nanos how long it took
+		 */
+		void onOperation(Op op, int comparisons, int moves, int depth, long nanos);
+	}
+
+	static final int SUB_BUCKET_BITS = 3;
+	static final int BUCKETS = 512;
+
+	private final long[] count = new long[Op.values().length];
+	private final long[] comparisons = new long[Op.values().length];
+	private final long[] moves = new long[Op.values().length];
+	private final long[] totalDepth = new long[Op.values().length];
+	private final int[] maxDepth = new int[Op.values().length];
+	private final long[][] latency = new long[Op.values().length][BUCKETS];
+	private Listener listener;
+
+	//state of the operation in progress
+	private long compareCount; //running total bumped by the counting comparator
+	private long opStartNanos;
+	private long opStartCompares;
+	private int opMoves;
+	private int opDepth;
+	private boolean inOp; //true between begin and end
+	//state of the outer operation while a nested one is running
+	private long outerStartNanos;
+	private long outerStartCompares;
+	private int outerMoves;
+	private int outerDepth;
+	private boolean nested;
+
+	/**
+	 * Sets the listener that is told about every operation, or null for none.
+	 *
+	 * @param l the listener
+	 */
+	public void setListener(Listener l) {
+		listener = l;
+	}
+
+	/**
+	 * Returns a copy of the counters as they are right now.
+	 *
+	 * @return snapshot of the metrics
+	 */
+	@TimeComplexity("O(1)")
+	public Snapshot snapshot() {
+		/*
+		 * TCJ
+		 * Copies a fixed number of arrays of fixed length
+		 */
+		return new Snapshot(this);
+	}
+
+	/**
+	 * Sets every counter back to zero.
+	 */
+	public void reset() {
+		for (int i = 0; i < count.length; i++) {
+			count[i] = 0;
+			comparisons[i] = 0;
+			moves[i] = 0;
+			totalDepth[i] = 0;
+			maxDepth[i] = 0;
+			java.util.Arrays.fill(latency[i], 0);
+		}
+	}
+
+	/* wraps a comparator so every call is counted */
+	<K> Comparator<K> counting(Comparator<K> c) {
+		return (a, b) -> {
+			compareCount++;
+			return c.compare(a, b);
+		};
+	}
+
+	/* starts an operation, one more can be started inside it and is kept apart from it */
+	void begin() {
+		if (inOp) {
+			nested = true;
+			outerStartNanos = opStartNanos;
+			outerStartCompares = opStartCompares;
+			outerMoves = opMoves;
+			outerDepth = opDepth;
+		}
+		inOp = true;
+		opStartCompares = compareCount;
+		opMoves = 0;
+		opDepth = 0;
+		opStartNanos = System.nanoTime();
+	}
+
+	/* one sift that moved through the given number of levels, moving one entry per level */
+	void sift(int levels) {
+		opMoves += levels;
+		opDepth = Math.max(opDepth, levels);
+	}
+
+	void end(Op op) {
+		long nanos = System.nanoTime() - opStartNanos;
+		int o = op.ordinal();
+		int c = (int) (compareCount - opStartCompares);
+
+		count[o]++;
+		comparisons[o] += c;
+		moves[o] += opMoves;
+		totalDepth[o] += opDepth;
+		maxDepth[o] = Math.max(maxDepth[o], opDepth);
+		latency[o][bucket(nanos)]++;
+
+		if (listener != null) {
+			listener.onOperation(op, c, opMoves, opDepth, nanos);
+		}
+
+		if (nested) { //pick the outer operation back up, without the comparisons made by this one
+			nested = false;
+			opStartNanos = outerStartNanos;
+			opStartCompares = outerStartCompares + c;
+			opMoves = outerMoves;
+			opDepth = outerDepth;
+		} else {
+			inOp = false;
+		}
+	}
+
+	/* histogram bucket for a value, values under 8 get their own bucket */
+	static int bucket(long value) {
+		if (value < (1 << SUB_BUCKET_BITS)) {
+			return (int) Math.max(value, 0);
+		}
+		int msb = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) ((value >>> (msb - SUB_BUCKET_BITS)) & ((1 << SUB_BUCKET_BITS) - 1));
+		return ((msb - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + sub;
+	}
+
+	/* smallest value that lands in the bucket */
+	static long bucketLowest(int bucket) {
+		if (bucket < (1 << SUB_BUCKET_BITS)) {
+			return bucket;
+		}
+		int msb = (bucket >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+		long sub = bucket & ((1 << SUB_BUCKET_BITS) - 1);
+		return (1L << msb) | (sub << (msb - SUB_BUCKET_BITS));
+	}
+
+	/**
+	 * A copy of the metrics at one point in time.
+	 */
+	public static class Snapshot {
+		private final long[] count;
+		private final long[] comparisons;
+		private final long[] moves;
+		private final long[] totalDepth;
+		private final int[] maxDepth;
+		private final long[][] latency;
+
+		Snapshot(HeapMetrics m) {
+			count = m.count.clone();
+			comparisons = m.comparisons.clone();
+			moves = m.moves.clone();
+			totalDepth = m.totalDepth.clone();
+			maxDepth = m.maxDepth.clone();
+			latency = new long[m.latency.length][];
+			for (int i = 0; i < latency.length; i++) {
+				latency[i] = m.latency[i].clone();
+			}
+		}
+
+		/** @return number of times op ran */
+		public long count(Op op) {
+			return count[op.ordinal()];
+		}
+
+		/** @return total key comparisons made by op */
+		public long comparisons(Op op) {
+			return comparisons[op.ordinal()];
+		}
+
+		/** @return total entry moves made by op */
+		public long moves(Op op) {
+			return moves[op.ordinal()];
+		}
+
+		/** @return average depth of the deepest sift in each op call, 0 if it never ran */
+		public double meanDepth(Op op) {
+			long n = count[op.ordinal()];
+			return (n == 0) ? 0 : (double) totalDepth[op.ordinal()] / n;
+		}
+
+		/** @return the most levels a single sift in op went through */
+		public int maxDepth(Op op) {
+			return maxDepth[op.ordinal()];
+		}
+
+		/**
+		 * Returns the latency that percentile of the op calls stayed at or
+		 * under, rounded down to the start of its histogram bucket.
+		 *
+		 * @param op the operation
+		 * @param percentile between 0 and 100
+		 * @return latency in nanoseconds, 0 if op never ran
+		 */
+		public long latencyPercentile(Op op, double percentile) {
+			long[] h = latency[op.ordinal()];
+			long n = count[op.ordinal()];
+			if (n == 0) {
+				return 0;
+			}
+			long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+			long seen = 0;
+			for (int b = 0; b < h.length; b++) {
+				seen += h[b];
+				if (seen >= rank) {
+					return bucketLowest(b);
+				}
+			}
+			return bucketLowest(h.length - 1);
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			for (Op op : Op.values()) {
+				sb.append(String.format("%-12s n=%d cmp=%d moves=%d depth(avg=%.2f max=%d) p50=%dns p99=%dns%n", op,
+						count(op), comparisons(op), moves(op), meanDepth(op), maxDepth(op),
+						latencyPercentile(op, 50), latencyPercentile(op, 99)));
+			}
+			return sb.toString();
+		}
+	}
+}
@@ -13,57 +13,158 @@ import net.datastructures.*;
 
 public class HeapPQ<K,V> implements AdaptablePriorityQueue<K,V> {
 	
-	ArrayList<Entry<K,V>> heapPQ;	
+	ArrayList<PQEntry<K,V>> heapPQ;	
 	Comparator<K> comp;
+	int arity; //number of children each node has
+	int maxSize = 0; //0 means unbounded, otherwise only the best maxSize entries are kept
+	Comparator<K> keyOrder; //the callers key order, comp is its reverse in bounded mode
+	ArrayList<PQEntry<K,V>> minSide; //bounded mode only, the same entries in a binary min heap by keyOrder
+	HeapMetrics metrics; //null unless metrics are turned on
+	Comparator<K> plainComp; //comp without the counting wrapper, while metrics are on
+	Comparator<K> plainKeyOrder; //same for keyOrder
+	double deadRatio = 0; //0 means remove right away, otherwise the most dead entries allowed before compacting
+	int tombstones = 0; //dead entries still in the array
 	
 	public HeapPQ() {
-		heapPQ = new ArrayList<Entry<K,V>>();
-		comp = new DefaultComparator<K>();
+		this(new DefaultComparator<K>(), 2);
 	}
 	
 	public HeapPQ(Comparator<K> c) {
-		heapPQ = new ArrayList<Entry<K,V>>();
+		this(c, 2);
+	}
+	
+	/**
+	 * Makes a d-ary heap. A 4-ary or 8-ary heap is shallower than a binary one
+	 * and keeps the children of a node next to each other in the array, which
+	 * makes removeMin cheaper on big heaps at the cost of more comparisons per
+	 * level. For a heap that only keeps the best entries, see bounded.
+	 * 
+	 * @param c comparator for the keys
+	 * @param arity number of children per node, usually 2, 4 or 8
+	 * @throws IllegalArgumentException if arity is less than 2
+	 */
+	public HeapPQ(Comparator<K> c, int arity) throws IllegalArgumentException {
+		if(arity < 2) {
+			throw new IllegalArgumentException();
+		}
+		heapPQ = new ArrayList<PQEntry<K,V>>();
 		comp = c;
+		keyOrder = c;
+		this.arity = arity;
 	}
 	
 	/**
-	 * The entry should be bubbled up to its appropriate position 
+	 * Makes a bounded heap that only keeps the maxSize entries with the
+	 * smallest keys. Once it is full, an insert either pushes out the entry
+	 * with the largest key or, if the new key is not smaller than that, is
+	 * dropped. Memory stays O(maxSize) no matter how many entries are
+	 * inserted.
+	 * 
+	 * To find the entry to push out quickly, the heap is kept upside down (the
+	 * largest key at the root). A second binary heap over the same entries,
+	 * ordered the normal way, keeps the smallest key on top too, so both ends
+	 * cost O(log maxSize). Every entry knows its spot in both heaps.
+	 * 
+	 * This is a named factory rather than a constructor so it can't be mixed
+	 * up with HeapPQ(c, arity), which takes the same kinds of arguments.
+	 * 
+	 * @param maxSize number of entries to keep
+	 * @param c comparator for the keys
+	 * @return an empty bounded heap
+	 * @throws IllegalArgumentException if maxSize is less than 1 or c is null
+	 */
+	public static <K,V> HeapPQ<K,V> bounded(int maxSize, Comparator<K> c) throws IllegalArgumentException {
+		if(maxSize < 1 || c == null) {
+			throw new IllegalArgumentException();
+		}
+		return new HeapPQ<K,V>(maxSize, c);
+	}
+	
+	/* bounded heap, the arguments are checked by bounded */
+	private HeapPQ(int maxSize, Comparator<K> c) {
+		this(c.reversed(), 2);
+		this.maxSize = maxSize;
+		keyOrder = c;
+		heapPQ.ensureCapacity(maxSize);
+		minSide = new ArrayList<PQEntry<K,V>>(maxSize);
+	}
+	
+	/**
+	 * The entry should be bubbled up to its appropriate position. Instead of
+	 * swapping at every level, the entry is held aside while each larger parent
+	 * moves down into the hole, and it is written once where the hole stops.
 	 * @param int move the entry at index j higher if necessary, to restore the heap property
 	 */
 	public void upheap(int j){
-		if(j == 0) { //base case, if we are at the root we are done
-			return;
+		PQEntry<K,V> e = heapPQ.get(j); //the entry being moved up
+		int levels = 0;
+		
+		while(j > 0) {
+			int p = parent(j);
+			PQEntry<K,V> parentEntry = heapPQ.get(p);
+			
+			if(comp.compare(e.getKey(), parentEntry.getKey()) >= 0) { //heap order holds, stop here
+				break;
+			}
+			
+			heapPQ.set(j, parentEntry); //move the parent down into the hole
+			parentEntry.setIndex(j);
+			j = p;
+			levels++;
 		}
 		
-		int p = parent(j);//grab the parent
-		if(comp.compare(heapPQ.get(j).getKey(), heapPQ.get(p).getKey()) <= 0) { //if the child is less than the parent, swap
-			swap(j,p);
+		heapPQ.set(j, e);
+		e.setIndex(j);
+		if(metrics != null) {
+			metrics.sift(levels);
 		}
-		 
-		upheap(p);//go again with the parent
 	}
 	
 	/**
-	 * The entry should be bubbled down to its appropriate position 
+	 * The entry should be bubbled down to its appropriate position. The
+	 * smallest child moves up into the hole at every level, and the entry is
+	 * written once where the hole stops.
 	 * @param int move the entry at index j lower if necessary, to restore the heap property
 	 */
 	
 	public void downheap(int j){
-		if(!(hasLeft(j))) { //if the node does not have a left child we are done
-			return;
-		}
+		PQEntry<K,V> e = heapPQ.get(j); //the entry being moved down
+		int n = heapPQ.size();
+		int levels = 0;
 		
-		int s = left(j);//grab the left child
-		
-		if(hasRight(j) && comp.compare(heapPQ.get(s).getKey(), heapPQ.get(right(j)).getKey()) >= 0) { //if the left child is greater than the right, the right is the new smallest
-			s = right(j);
+		while(true) {
+			int first = child(j, 0);
+			if(first >= n) { //no children, we are at a leaf
+				break;
+			}
+			
+			//find the smallest child
+			int s = first;
+			PQEntry<K,V> smallest = heapPQ.get(first);
+			int last = Math.min(first + arity, n);
+			for(int c = first + 1; c < last; c++) {
+				PQEntry<K,V> candidate = heapPQ.get(c);
+				if(comp.compare(candidate.getKey(), smallest.getKey()) < 0) {
+					s = c;
+					smallest = candidate;
+				}
+			}
+			
+			if(comp.compare(smallest.getKey(), e.getKey()) >= 0) { //heap order holds, stop here
+				break;
+			}
+			
+			heapPQ.set(j, smallest); //move the smallest child up into the hole
+			smallest.setIndex(j);
+			j = s;
+			levels++;
 		}
 		
-		if(comp.compare(heapPQ.get(s).getKey(), heapPQ.get(j).getKey()) <= 0) { //if the smallest child is smaller than the parent, swap
-			swap(s, j);
+		heapPQ.set(j, e);
+		e.setIndex(j);
+		if(metrics != null) {
+			metrics.sift(levels);
 		}
-		
-		downheap(s); //downheap again with the new smallest
 	}
 
 	/**
@@ -78,7 +179,7 @@ public class HeapPQ<K,V> implements AdaptablePriorityQueue<K,V> {
 		 * TCJ
 		 * The method just returns an int variable, which is a primitive operation. This is constant time.
 		 */
-		return heapPQ.size(); //get the size of the heap
+		return heapPQ.size() - tombstones; //get the size of the heap, not counting dead entries
 	}
 
 	/**
@@ -93,7 +194,7 @@ public class HeapPQ<K,V> implements AdaptablePriorityQueue<K,V> {
 		 * TCJ
 		 * The method returns a comparison, which is a primitive operation. This is constant time
 		 */
-		return heapPQ.isEmpty(); //check if the heap is empty
+		return size() == 0; //check if the heap is empty
 	}
 	
 	/**
@@ -101,7 +202,8 @@ public class HeapPQ<K,V> implements AdaptablePriorityQueue<K,V> {
 	 * 
 	 * @param K new key
 	 * @param V new value
-	 * @return entry inserted
+	 * @return entry inserted, or null if the heap is bounded and full and the
+	 *         key is not smaller than the largest one kept (the entry is dropped)
 	 */
 	@TimeComplexity ("O(log n)")
 	@Override
@@ -110,17 +212,164 @@ public class HeapPQ<K,V> implements AdaptablePriorityQueue<K,V> {
 		 * TCJ
 		 * Moves log n steps down the tree before inserting and then performs a log n operation
 		 */
+		if(metrics == null) {
+			return insertEntry(key, value);
+		}
+		metrics.begin();
+		try {
+			return insertEntry(key, value);
+		} finally {
+			metrics.end(HeapMetrics.Op.INSERT);
+		}
+	}
+	
+	private Entry<K, V> insertEntry(K key, V value) throws IllegalArgumentException {
 		boolean checked = checkKey(key);
 		
+		if(maxSize > 0 && heapPQ.size() == maxSize) { //bounded and full, the new entry has to beat the worst one
+			PQEntry<K,V> worst = heapPQ.get(0);
+			if(keyOrder.compare(key, worst.getKey()) >= 0) {
+				return null; //not good enough, it never goes in the heap
+			}
+			
+			PQEntry<K,V> insertedEntry = new PQEntry<K,V>(key, value, 0);
+			heapPQ.set(0, insertedEntry); //push the worst entry out
+			worst.setIndex(-1);
+			downheap(0);
+			
+			int m = worst.getMinIndex(); //the new entry takes the worst one's spot on the min side too
+			minSide.set(m, insertedEntry);
+			insertedEntry.setMinIndex(m);
+			worst.setMinIndex(-1);
+			minReHeap(m);
+			return insertedEntry;
+		}
+		
 		PQEntry<K,V> insertedEntry = new PQEntry<K,V>(key,value, heapPQ.size()); //create a new entry 
 		
 		heapPQ.addLast(insertedEntry); //put entry at the end of the list
 		
 		upheap(heapPQ.size() - 1); //restore heap order
 		
+		if(maxSize > 0) {
+			insertedEntry.setMinIndex(minSide.size());
+			minSide.addLast(insertedEntry);
+			minUpheap(minSide.size() - 1);
+		}
+		
 		return insertedEntry; //return the new entry
 	}
 
+	/**
+	 * Inserts a batch of entries. keys.get(i) is paired with values.get(i).
+	 * If the batch is big compared to the heap, the entries are all appended
+	 * and the whole heap is rebuilt bottom up in one O(n + k) pass, otherwise
+	 * each new entry is bubbled up on its own.
+	 * 
+	 * @param keys keys of the new entries
+	 * @param values values of the new entries
+	 * @return the new entries, in the same order as keys, with null for any a
+	 *         bounded heap dropped
+	 * @throws IllegalArgumentException if the lists are different lengths or a key can't be compared
+	 */
+	@TimeComplexity ("O(n + k)")
+	public ArrayList<Entry<K,V>> insertAll(List<K> keys, List<V> values) throws IllegalArgumentException {
+		/*
+		 * TCJ
+		 * Appending the k entries is O(k). Then it either does k upheaps,
+		 * O(k log(n + k)), or one heapify, O(n + k), whichever is cheaper. The
+		 * upheaps are only picked when k log(n + k) is under n + k.
+		 */
+		int k = keys.size();
+		if(values.size() != k) {
+			throw new IllegalArgumentException();
+		}
+		for(int i = 0; i < k; i++) { //check every key before changing anything
+			checkKey(keys.get(i));
+		}
+		
+		ArrayList<Entry<K,V>> handles = new ArrayList<Entry<K,V>>(k);
+		
+		if(maxSize > 0) { //bounded heaps have to decide on each entry
+			for(int i = 0; i < k; i++) {
+				handles.addLast(insert(keys.get(i), values.get(i)));
+			}
+			return handles;
+		}
+		
+		int n = heapPQ.size();
+		heapPQ.ensureCapacity(n + k); //grow once for the whole batch
+		
+		for(int i = 0; i < k; i++) {
+			PQEntry<K,V> e = new PQEntry<K,V>(keys.get(i), values.get(i), n + i);
+			heapPQ.addLast(e);
+			handles.addLast(e);
+		}
+		
+		//levels an upheap can climb, roughly log base arity of the new size
+		int levels = 1;
+		for(long span = arity; span < n + k; span *= arity) {
+			levels++;
+		}
+		
+		if((long) k * levels < n + k) { //only a few new entries, bubble each one up
+			for(int i = n; i < n + k; i++) {
+				if(metrics == null) {
+					upheap(i);
+					continue;
+				}
+				metrics.begin(); //each one is measured like an insert
+				try {
+					upheap(i);
+				} finally {
+					metrics.end(HeapMetrics.Op.INSERT);
+				}
+			}
+		}
+		else {
+			heapify();
+		}
+		
+		return handles;
+	}
+	
+	/**
+	 * Restores heap order over the whole heap, bottom up. Every node that has
+	 * children is bubbled down, starting from the last one.
+	 */
+	@TimeComplexity ("O(n)")
+	public void heapify() {
+		/*
+		 * TCJ
+		 * Most nodes are near the bottom and only move down a level or two, the
+		 * moves add up to O(n) in total.
+		 */
+		if(metrics == null) {
+			heapifyEntries();
+			return;
+		}
+		metrics.begin();
+		try {
+			heapifyEntries();
+		} finally {
+			metrics.end(HeapMetrics.Op.HEAPIFY);
+		}
+	}
+	
+	private void heapifyEntries() {
+		if(heapPQ.size() < 2) { //nothing to order
+			return;
+		}
+		for(int i = parent(heapPQ.size() - 1); i >= 0; i--) {
+			downheap(i);
+		}
+		if(maxSize > 0) {
+			for(int i = (minSide.size() - 2) / 2; i >= 0; i--) {
+				minDownheap(i);
+			}
+		}
+	}
+
 	protected boolean checkKey(K key) throws IllegalArgumentException{
 		try {
 			return (comp.compare(key, key) == 0);
@@ -139,12 +388,19 @@ public class HeapPQ<K,V> implements AdaptablePriorityQueue<K,V> {
 	public Entry<K, V> min() {
 		/*
 		 * TCJ
-		 * Accesses the array, which is a constant time operation
+		 * Accesses the array, which is a constant time operation. With lazy
+		 * removal, dead entries on top are taken off first, which is paid for by
+		 * the remove that killed them.
 		 */
+		dropDeadTop();
 		if(heapPQ.isEmpty()) { //check if the heap is empty
 			return null;
 		}
 		
+		if(maxSize > 0) { //bounded heaps are upside down, the minimum is on top of the min side
+			return minSide.get(0);
+		}
+		
 		return heapPQ.get(0); //get the root node
 	}
 
@@ -160,22 +416,94 @@ public class HeapPQ<K,V> implements AdaptablePriorityQueue<K,V> {
 		 * TCJ
 		 * Removes entry by stepping down the tree logn steps and restores the heap
 		 */
+		if(metrics == null) {
+			return removeMinEntry();
+		}
+		metrics.begin();
+		try {
+			return removeMinEntry();
+		} finally {
+			metrics.end(HeapMetrics.Op.REMOVE_MIN);
+		}
+	}
+	
+	private Entry<K, V> removeMinEntry() {
+		dropDeadTop();
 		if(heapPQ.isEmpty()) { //check if the heap is empty
 			return null;
 		}
-		PQEntry<K,V> removedVal = (PQEntry<K, V>) heapPQ.get(0); //get the minimum value
 		
-		heapPQ.set(0, heapPQ.get(heapPQ.size() - 1)); //replace the minimum entry with the last entry
+		if(maxSize > 0) { //bounded heaps are upside down, the minimum is on top of the min side
+			PQEntry<K,V> removedVal = minSide.get(0);
+			removeEntry(removedVal);
+			return removedVal;
+		}
+		
+		return removeRoot();
+	}
+	
+	/**
+	 * Removes the entries with the k smallest keys (or all of them if there are
+	 * fewer than k) and adds them to the end of out, smallest first.
+	 * 
+	 * @param k number of entries to remove
+	 * @param out list to add the removed entries to
+	 * @return number of entries removed
+	 */
+	@TimeComplexity ("O(k log n)")
+	public int removeMin(int k, List<Entry<K,V>> out) {
+		/*
+		 * TCJ
+		 * k removeMins, each O(log n). Dead entries that reach the top on the
+		 * way are dropped by the removeMins themselves.
+		 */
+		int count = Math.min(k, size());
+		
+		for(int i = 0; i < count; i++) {
+			out.add(out.size(), removeMin()); //each one is measured like a removeMin
+		}
+		return count;
+	}
+	
+	/**
+	 * Removes every entry and returns them sorted from smallest key to largest.
+	 * 
+	 * @return the entries in key order
+	 */
+	@TimeComplexity ("O(n log n)")
+	public ArrayList<Entry<K,V>> drainSorted() {
+		/*
+		 * TCJ
+		 * n removals from the root, each O(log n)
+		 */
+		int n = size();
+		ArrayList<Entry<K,V>> sorted = new ArrayList<Entry<K,V>>(n);
+		
+		for(int i = 0; i < n; i++) {
+			sorted.addLast(removeMin()); //each one is measured like a removeMin
+		}
+		return sorted;
+	}
+	
+	/* removes the entry at the root, which is the first in comp order, unbounded heaps only */
+	private PQEntry<K,V> removeRoot() {
+		PQEntry<K,V> removedVal = heapPQ.get(0); //get the minimum value
 		
-		heapPQ.removeLast(); //get rid of the last node
+		PQEntry<K,V> last = heapPQ.removeLast(); //get rid of the last node
 		
-		downheap(0); //restore heap order
+		if(!heapPQ.isEmpty()) {
+			heapPQ.set(0, last); //replace the minimum entry with the last entry
+			last.setIndex(0);
+			downheap(0); //restore heap order
+		}
 		
+		removedVal.setIndex(-1); //the entry is no longer in the heap
 		return removedVal; //return the removed entry
 	}
 
 	/**
-	 * Removes selected entry from the heap and restores heap order
+	 * Removes selected entry from the heap and restores heap order. With lazy
+	 * removal on, the entry is only marked dead (see setLazyRemoval).
 	 * 
 	 * @param entry to be removed
 	 */
@@ -184,20 +512,55 @@ public class HeapPQ<K,V> implements AdaptablePriorityQueue<K,V> {
 	public void remove(Entry<K, V> entry) throws IllegalArgumentException {
 		/*
 		 * TCJ
-		 * Removes entry by stepping down the tree logn steps and restores the heap
+		 * Removes entry by stepping down the tree logn steps and restores the heap.
+		 * Lazy removal is O(1) plus an O(n) compaction every time the dead
+		 * entries reach a fixed fraction of n, which is amortized O(1).
 		 */
+		if(metrics == null) {
+			removeEntry(entry);
+			return;
+		}
+		metrics.begin();
+		try {
+			removeEntry(entry);
+		} finally {
+			metrics.end(HeapMetrics.Op.REMOVE);
+		}
+	}
+	
+	private void removeEntry(Entry<K, V> entry) throws IllegalArgumentException {
 		PQEntry<K,V> removedEntry = (PQEntry<K,V>) validateEntry(entry); //validate the entry and set it to a new entry variable
 		
-		int i = removedEntry.getIndex();
-		if(i == heapPQ.size() - 1) { //if the entry to remove is at the end of the list
-			heapPQ.remove(heapPQ.size() - 1); //get rid of element at the end of the list
+		if(deadRatio > 0 && maxSize == 0) { //lazy removal, just mark it and leave it where it is
+			removedEntry.setDead(true);
+			tombstones++;
+			if(tombstones > deadRatio * heapPQ.size()) {
+				compact();
+			}
+			return;
 		}
-		else {
-			swap(i, heapPQ.size() - 1); //swap the entry with the last entry
-			heapPQ.remove(heapPQ.size() - 1); //get rid of last entry
-			downheap(i);
+		
+		int i = removedEntry.getIndex();
+		PQEntry<K,V> last = heapPQ.removeLast(); //get rid of last entry
+		
+		if(i < heapPQ.size()) { //the entry was not the last one, so move the last one into its spot
+			heapPQ.set(i, last);
+			last.setIndex(i);
+			reHeap(i); //the moved entry might have to go up or down
 		}
 		
+		removedEntry.setIndex(-1); //the entry is no longer in the heap
+		
+		if(maxSize > 0) { //same thing on the min side
+			int m = removedEntry.getMinIndex();
+			PQEntry<K,V> lastMin = minSide.removeLast();
+			if(m < minSide.size()) {
+				minSide.set(m, lastMin);
+				lastMin.setMinIndex(m);
+				minReHeap(m);
+			}
+			removedEntry.setMinIndex(-1);
+		}
 	}
 
 	/**
@@ -213,6 +576,19 @@ public class HeapPQ<K,V> implements AdaptablePriorityQueue<K,V> {
 		 * TCJ
 		 * This changes a key in the entry, which is a constant time operation
 		 */
+		if(metrics == null) {
+			replaceEntryKey(entry, key);
+			return;
+		}
+		metrics.begin();
+		try {
+			replaceEntryKey(entry, key);
+		} finally {
+			metrics.end(HeapMetrics.Op.REPLACE_KEY);
+		}
+	}
+	
+	private void replaceEntryKey(Entry<K, V> entry, K key) throws IllegalArgumentException {
 		PQEntry<K,V> tempEntry = (PQEntry<K,V>) validateEntry(entry); //validate the entry
 		
 		if(!(comp.compare(key, key) == 0)) { //validate the key
@@ -222,6 +598,9 @@ public class HeapPQ<K,V> implements AdaptablePriorityQueue<K,V> {
 		tempEntry.setKey(key); //set the new key
 		
 		reHeap(tempEntry.getIndex()); //restore heap order
+		if(maxSize > 0) {
+			minReHeap(tempEntry.getMinIndex());
+		}
 	}
 
 	/**
@@ -244,13 +623,123 @@ public class HeapPQ<K,V> implements AdaptablePriorityQueue<K,V> {
 	}
 	
 
+	/**
+	 * Turns on lazy removal. remove then only marks the entry as dead in O(1)
+	 * and leaves it in the heap. min and removeMin throw away dead entries as
+	 * they reach the top, and once more than maxDeadRatio of the array is dead
+	 * the live entries are packed together and the heap is rebuilt in one O(n)
+	 * pass. That is much cheaper when most entries are removed long before
+	 * they would reach the top. size() never counts dead entries. A ratio of 0
+	 * turns lazy removal off again and compacts right away.
+	 * 
+	 * Bounded heaps always remove right away.
+	 * 
+	 * @param maxDeadRatio fraction of the array allowed to be dead, in [0, 1)
+	 * @throws IllegalArgumentException if maxDeadRatio is outside [0, 1)
+	 */
+	@TimeComplexity ("O(n)")
+	public void setLazyRemoval(double maxDeadRatio) throws IllegalArgumentException {
+		/*
+		 * TCJ
+		 * Turning it off may have to compact the whole heap
+		 */
+		if(!(maxDeadRatio >= 0 && maxDeadRatio < 1)) {
+			throw new IllegalArgumentException();
+		}
+		deadRatio = maxDeadRatio;
+		if(deadRatio == 0 && tombstones > 0) {
+			compact();
+		}
+	}
+	
+	/**
+	 * Drops every dead entry and rebuilds the heap from the live ones.
+	 */
+	@TimeComplexity ("O(n)")
+	public void compact() {
+		/*
+		 * TCJ
+		 * One pass to pack the live entries to the front and one heapify
+		 */
+		int n = heapPQ.size();
+		int live = 0;
+		for(int i = 0; i < n; i++) {
+			PQEntry<K,V> e = heapPQ.get(i);
+			if(e.isDead()) {
+				e.setIndex(-1); //the entry is no longer in the heap
+				continue;
+			}
+			heapPQ.set(live, e);
+			e.setIndex(live);
+			live++;
+		}
+		heapPQ.removeRange(live, n);
+		tombstones = 0;
+		heapify();
+	}
+	
+	/* takes dead entries off the top until the root is live or the heap is empty */
+	private void dropDeadTop() {
+		while(tombstones > 0 && !heapPQ.isEmpty() && heapPQ.get(0).isDead()) {
+			removeRoot();
+			tombstones--;
+		}
+	}
+	
+	/**
+	 * Turns on metrics. From now on every insert, removeMin, remove and
+	 * replaceKey records its key comparisons, entry moves, sift depth and
+	 * latency. That includes the entries insertAll bubbles up and the ones
+	 * removeMin(k, out) and drainSorted take off. Every heapify, whether called
+	 * directly, by insertAll or by a compaction, is recorded as HEAPIFY. Does
+	 * nothing if they are already on.
+	 * 
+	 * @return the metrics of this heap
+	 */
+	@TimeComplexity ("O(1)")
+	public HeapMetrics enableMetrics() {
+		if(metrics == null) {
+			metrics = new HeapMetrics();
+			plainComp = comp;
+			plainKeyOrder = keyOrder;
+			comp = metrics.counting(comp);
+			keyOrder = (plainKeyOrder == plainComp) ? comp : metrics.counting(keyOrder);
+		}
+		return metrics;
+	}
+	
+	/**
+	 * Turns metrics off again and drops what was recorded.
+	 */
+	@TimeComplexity ("O(1)")
+	public void disableMetrics() {
+		if(metrics != null) {
+			comp = plainComp;
+			keyOrder = plainKeyOrder;
+			plainComp = null;
+			plainKeyOrder = null;
+			metrics = null;
+		}
+	}
+	
+	/**
+	 * Returns a copy of the metrics recorded so far.
+	 * 
+	 * @return the snapshot, or null if metrics are off
+	 */
+	@TimeComplexity ("O(1)")
+	public HeapMetrics.Snapshot snapshot() {
+		return (metrics == null) ? null : metrics.snapshot();
+	}
+	
 	public PQEntry<K,V> validateEntry(Entry<K,V> entry) {
 		if(!(entry instanceof PQEntry)) { //check if entry is actually an entry
 			throw new IllegalArgumentException();
 		}
 		PQEntry<K,V> tempEntry = (PQEntry<K,V>) (entry);
 		
-		if(tempEntry.getIndex() > heapPQ.size() -1) { //check if entry is in the list
+		int i = tempEntry.getIndex();
+		if(i < 0 || i >= heapPQ.size() || heapPQ.get(i) != tempEntry || tempEntry.isDead()) { //check if entry is live in this heap
 			throw new IllegalArgumentException();
 		}
 		
@@ -259,17 +748,21 @@ public class HeapPQ<K,V> implements AdaptablePriorityQueue<K,V> {
 	
 
 	public int parent(int i) {
-		return ((i-1)/2);
+		return ((i-1)/arity);
 	}
 	
+	/* index of child k (counting from 0) of node i */
+	public int child(int i, int k) {
+		return (arity*i + 1 + k);
+	}
 
 	public int left(int i) {
-		return (2*i + 1);
+		return child(i, 0);
 	}
 	
 
 	public int right(int i) {
-		return(2*i + 2);
+		return child(i, 1);
 	}
 	
 	public boolean hasLeft(int i) {
@@ -283,11 +776,11 @@ public class HeapPQ<K,V> implements AdaptablePriorityQueue<K,V> {
 	
 	
 	public void swap(int i, int j) {
-		Entry<K,V> tempEntry = heapPQ.get(i);
+		PQEntry<K,V> tempEntry = heapPQ.get(i);
 		
 		//swap the index of each entry
-		((PQEntry<K,V>) heapPQ.get(i)).setIndex(j);
-		((PQEntry<K,V>) heapPQ.get(j)).setIndex(i);
+		heapPQ.get(i).setIndex(j);
+		heapPQ.get(j).setIndex(i);
 		
 		//swap each entry
 		heapPQ.set(i, heapPQ.get(j));
@@ -303,10 +796,69 @@ public class HeapPQ<K,V> implements AdaptablePriorityQueue<K,V> {
 		}
 	}
 	
+	/* moves the min side entry at j up, the min side is a binary heap by keyOrder */
+	private void minUpheap(int j) {
+		PQEntry<K,V> e = minSide.get(j);
+		int levels = 0;
+		while(j > 0) {
+			int p = (j - 1) / 2;
+			PQEntry<K,V> parentEntry = minSide.get(p);
+			if(keyOrder.compare(e.getKey(), parentEntry.getKey()) >= 0) {
+				break;
+			}
+			minSide.set(j, parentEntry);
+			parentEntry.setMinIndex(j);
+			j = p;
+			levels++;
+		}
+		minSide.set(j, e);
+		e.setMinIndex(j);
+		if(metrics != null) {
+			metrics.sift(levels);
+		}
+	}
+	
+	/* moves the min side entry at j down */
+	private void minDownheap(int j) {
+		PQEntry<K,V> e = minSide.get(j);
+		int n = minSide.size();
+		int levels = 0;
+		while(2 * j + 1 < n) {
+			int s = 2 * j + 1;
+			if(s + 1 < n && keyOrder.compare(minSide.get(s + 1).getKey(), minSide.get(s).getKey()) < 0) {
+				s++;
+			}
+			PQEntry<K,V> smallest = minSide.get(s);
+			if(keyOrder.compare(smallest.getKey(), e.getKey()) >= 0) {
+				break;
+			}
+			minSide.set(j, smallest);
+			smallest.setMinIndex(j);
+			j = s;
+			levels++;
+		}
+		minSide.set(j, e);
+		e.setMinIndex(j);
+		if(metrics != null) {
+			metrics.sift(levels);
+		}
+	}
+	
+	private void minReHeap(int j) {
+		if(j > 0 && keyOrder.compare(minSide.get(j).getKey(), minSide.get((j - 1) / 2).getKey()) < 0) {
+			minUpheap(j);
+		}
+		else {
+			minDownheap(j);
+		}
+	}
+	
 	static class PQEntry<K,V> implements Entry<K,V>{
 		private K k;
 		private V v;
 		private int i;
+		private int minI = -1; //spot on the min side of a bounded heap
+		private boolean dead = false; //removed lazily but still in the array
 		
 		public PQEntry(K key, V value, int index) {
 			k = key;
@@ -339,6 +891,22 @@ public class HeapPQ<K,V> implements AdaptablePriorityQueue<K,V> {
 		public void setIndex(int i) {
 			this.i = i;
 		}
+		
+		public int getMinIndex() {
+			return minI;
+		}
+		
+		public void setMinIndex(int i) {
+			minI = i;
+		}
+		
+		public boolean isDead() {
+			return dead;
+		}
+		
+		public void setDead(boolean dead) {
+			this.dead = dead;
+		}
 	}
 
 
@@ -1,34 +1,49 @@
 package cs2321;
 
-import java.io.BufferedWriter;
-import java.io.DataOutputStream;
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
-import cs2321.HeapPQ.PQEntry;
-import cs2321.LinkedBinaryTree.Node;
 import net.datastructures.*;
 
 
 /*
  * The format of the compressed file includes 3 continuously parts:
- *  1. prefix tree in bit stream
- *  2. length of the original file using 4 bytes
- *  3. data coded with Huffman coding. 
+ *  1. code length of every byte value 0 to 255, one byte each (0 if the byte value never shows up)
+ *  2. length of the original file using 8 bytes
+ *  3. data coded with Huffman coding, packed into bytes, first bit in the high bit. 
  * 
- * Encoding prefix tree bit stream: 
- *   if the node is external, output 0, followed by the letter
- *   if the node is internal, output 1, followed by 
- *  		the bit stream of left subtree, then the bit stream of right subtree. 
+ * The codes are canonical, so the lengths are all it takes to rebuild them:
+ * shorter codes come first, and codes of the same length are numbered in
+ * order of their byte value. No code is longer than MAX_CODE_LENGTH bits.
+ * 
+ * Compressing reads the input twice, once to count the bytes and once to
+ * encode them, through buffers of BUFFER_SIZE bytes. Memory use doesn't
+ * depend on how big the input is.
  */
 public class Huffman {
 	
+	/** Size of the read and write buffers */
+	static final int BUFFER_SIZE = 1 << 16;
+	
+	/** Longest code allowed, so a code always fits in an int and two fit in the 64 bit accumulator */
+	static final int MAX_CODE_LENGTH = 20;
+	
+	/** Bits of input the primary decoding table is indexed by */
+	static final int PRIMARY_BITS = 11;
+	
+	/* length field of a primary table entry that points to a secondary table */
+	static final int POINTER = 31;
+	
 	/**
 	 * 
 	 * Compress file using Huffman code. 
@@ -36,112 +51,270 @@ public class Huffman {
 	 * @param inputFile  The original data file
 	 * @param outputFile  The compressed data file that should be generated. 
 	 * @return the length of the data encoded with Huffman Code, don't include data for the prefix tree and length of the original file. 
+	 * @throws UncheckedIOException if a file can't be read or written
 	 */
 	public int compress(String inputFile, String outputFile) {
-		HeapPQ<Integer, LinkedBinaryTree<Character>> heap = new HeapPQ<Integer, LinkedBinaryTree<Character>>();
-		FileReader reader = null;
-		File f = new File(inputFile);
-		//TODO: implement the compress
-		
 		try {
-			reader = new FileReader(f); //create a new file reader
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
+			return (int) Math.min(compress(Paths.get(inputFile), Paths.get(outputFile)), Integer.MAX_VALUE);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
 		}
+	}
+	
+	/**
+	 * Compress a file using Huffman code, reading it once for the histogram and
+	 * once to encode it.
+	 * 
+	 * @param input the original data file
+	 * @param output the compressed file, replaced if it exists
+	 * @return number of bits of coded data
+	 * @throws IOException if a file can't be read or written
+	 */
+	public long compress(Path input, Path output) throws IOException {
+		long[] freq;
+		try (FileChannel in = FileChannel.open(input)) {
+			freq = histogram(in);
+		}
+		try (FileChannel in = FileChannel.open(input);
+				FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+						StandardOpenOption.TRUNCATE_EXISTING)) {
+			return compress(freq, in, out);
+		}
+	}
+	
+	/**
+	 * Counts how often each byte value shows up in the stream, reading it to the end.
+	 * 
+	 * @param in the data
+	 * @return 256 counts, indexed by byte value
+	 * @throws IOException if the stream can't be read
+	 */
+	public long[] histogram(InputStream in) throws IOException {
+		return histogram(Channels.newChannel(in));
+	}
+	
+	/**
+	 * Counts how often each byte value shows up in the channel, reading it to the end.
+	 * 
+	 * @param in the data
+	 * @return 256 counts, indexed by byte value
+	 * @throws IOException if the channel can't be read
+	 */
+	public long[] histogram(ReadableByteChannel in) throws IOException {
+		long[] freq = new long[256];
+		ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+		byte[] b = buf.array();
 		
-		char[] ch = new char[(int) f.length()];
-		
-		try {
-			reader.read(ch); //read characters into the array
-		} catch (IOException e) {
-			e.printStackTrace();
+		while(in.read(buf) != -1) {
+			int n = buf.position();
+			for(int i = 0; i < n; i++) {
+				freq[b[i] & 0xFF]++;
+			}
+			buf.clear();
 		}
+		return freq;
+	}
+	
+	/**
+	 * Compress a stream whose histogram is already known. The stream has to
+	 * hold the same data histogram was given, usually by opening the source a
+	 * second time. out is not flushed or closed.
+	 * 
+	 * @param freq counts from histogram
+	 * @param in the original data
+	 * @param out where the compressed data goes
+	 * @return number of bits of coded data
+	 * @throws IOException if a stream can't be read or written
+	 * @throws IllegalArgumentException if in holds a byte freq says isn't there
+	 */
+	public long compress(long[] freq, InputStream in, OutputStream out) throws IOException {
+		return compress(freq, Channels.newChannel(in), Channels.newChannel(out));
+	}
+	
+	/**
+	 * Compress a channel whose histogram is already known. The channel has to
+	 * hold the same data histogram was given.
+	 * 
+	 * @param freq counts from histogram
+	 * @param in the original data
+	 * @param out where the compressed data goes
+	 * @return number of bits of coded data
+	 * @throws IOException if a channel can't be read or written
+	 * @throws IllegalArgumentException if in holds a byte freq says isn't there
+	 */
+	public long compress(long[] freq, ReadableByteChannel in, WritableByteChannel out) throws IOException {
+		byte[] lengths = codeLengths(freq);
+		int[] codes = canonicalCodes(lengths);
+		long length = 0;
+		for(int i = 0; i < 256; i++) {
+			length += freq[i];
+		}
+		
+		//the code lengths and the length go at the front of the output buffer
+		ByteBuffer outBuf = ByteBuffer.allocate(BUFFER_SIZE);
+		outBuf.put(lengths);
+		outBuf.putLong(length);
 		
-		//find frequency counts
-		int[] freq = new int[256];
+		//encode one buffer at a time. Codes are shifted into acc, and every time
+		//it holds 32 bits or more, the oldest 32 go out as one int.
+		ByteBuffer inBuf = ByteBuffer.allocate(BUFFER_SIZE);
+		byte[] b = inBuf.array();
+		long bits = 0;
+		long acc = 0;
+		int accBits = 0; //bits in acc not written yet, always under 32 between symbols
 		
-		for(char character: ch) {
-			freq[character]++;
+		while(in.read(inBuf) != -1) {
+			int n = inBuf.position();
+			for(int i = 0; i < n; i++) {
+				int c = b[i] & 0xFF;
+				int len = lengths[c];
+				if(len == 0) {
+					throw new IllegalArgumentException();
+				}
+				acc = (acc << len) | codes[c];
+				accBits += len;
+				if(accBits >= 32) {
+					if(outBuf.remaining() < 4) {
+						flush(outBuf, out);
+					}
+					outBuf.putInt((int) (acc >>> (accBits - 32)));
+					accBits -= 32;
+				}
+				bits += len;
+			}
+			inBuf.clear();
+		}
+		
+		//whatever is left goes out a byte at a time, the last byte padded with zeros
+		if(outBuf.remaining() < 4) {
+			flush(outBuf, out);
+		}
+		while(accBits > 0) {
+			if(accBits >= 8) {
+				outBuf.put((byte) (acc >>> (accBits - 8)));
+				accBits -= 8;
+			} else {
+				outBuf.put((byte) (acc << (8 - accBits)));
+				accBits = 0;
+			}
+		}
+		flush(outBuf, out);
+		return bits;
+	}
+	
+	/* writes out everything in buf and empties it */
+	private static void flush(ByteBuffer buf, WritableByteChannel out) throws IOException {
+		buf.flip();
+		while(buf.hasRemaining()) {
+			out.write(buf);
 		}
+		buf.clear();
+	}
 	
-		//build the tree
+	/*
+	 * Builds the Huffman tree by repeatedly joining the two trees with the
+	 * smallest counts under a new root. Returns null if every count is 0.
+	 */
+	LinkedBinaryTree<Character> buildTree(long[] freq) {
+		HeapPQ<Long, LinkedBinaryTree<Character>> heap = new HeapPQ<Long, LinkedBinaryTree<Character>>();
+		
+		//load all the leaves into the heap at once
+		ArrayList<Long> leafFreqs = new ArrayList<Long>(256);
+		ArrayList<LinkedBinaryTree<Character>> leaves = new ArrayList<LinkedBinaryTree<Character>>(256);
 		for(int i = 0; i < 256; i++) {
 			if(freq[i] > 0) {
 				LinkedBinaryTree<Character> tempTree = new LinkedBinaryTree<Character>();
 				tempTree.addRoot((char)i);
-				heap.insert(freq[i], tempTree);
+				leafFreqs.addLast(freq[i]);
+				leaves.addLast(tempTree);
 			}
 		}
+		if(leaves.isEmpty()) {
+			return null;
+		}
+		heap.insertAll(leafFreqs, leaves);
 		
 		while(heap.size() > 1) {
-			Entry<Integer, LinkedBinaryTree<Character>> tempEntry1 = heap.removeMin();
-			Entry<Integer, LinkedBinaryTree<Character>> tempEntry2 = heap.removeMin();
+			Entry<Long, LinkedBinaryTree<Character>> tempEntry1 = heap.removeMin();
+			Entry<Long, LinkedBinaryTree<Character>> tempEntry2 = heap.removeMin();
 			
-			int freqSum = tempEntry1.getKey() + tempEntry2.getKey();
+			long freqSum = tempEntry1.getKey() + tempEntry2.getKey();
 			LinkedBinaryTree<Character> tempTree = new LinkedBinaryTree<Character>();
 			
 			tempTree.addRoot(null);
-			tempTree.addLeft(tempTree.root(), tempEntry1.getValue().root.getElement());
-			tempTree.addRight(tempTree.root(), tempEntry2.getValue().root.getElement());
+			tempTree.attach(tempTree.root(), tempEntry1.getValue(), tempEntry2.getValue()); //keep both whole subtrees
 		
 			heap.insert(freqSum,tempTree);
 		}
 		
-		//build the code table
-		String[] codeTable = new String[256];
-		LinkedBinaryTree<Character> t = heap.removeMin().getValue();
-		
-		buildCode(codeTable, t, t.root(), "");
-		
-		//write the tree
-		DataOutputStream writer = null;
+		return heap.removeMin().getValue();
+	}
+	
+	/*
+	 * Huffman code length of every byte value, 0 for the ones that never show
+	 * up. If the tree comes out deeper than MAX_CODE_LENGTH, the counts are
+	 * halved (rare values stay at 1) and the tree is built again, which
+	 * flattens it a bit each round.
+	 */
+	byte[] codeLengths(long[] freq) {
+		byte[] lengths = new byte[256];
+		long[] f = freq.clone();
 		
-		try {
-			 writer = new DataOutputStream(new FileOutputStream(outputFile));
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
+		while(true) {
+			LinkedBinaryTree<Character> t = buildTree(f);
+			if(t == null) {
+				return lengths;
+			}
+			if(t.isExternal(t.root())) { //only one byte value, it still needs one bit
+				lengths[t.root().getElement()] = 1;
+				return lengths;
+			}
+			if(depths(t, t.root(), 0, lengths) <= MAX_CODE_LENGTH) {
+				return lengths;
+			}
+			for(int i = 0; i < 256; i++) {
+				if(f[i] > 0) {
+					f[i] = (f[i] >> 1) | 1;
+				}
+			}
 		}
-		
-		writePrefixTree(t, t.root, writer);
-		
-		return 0;
 	}
 	
-	void buildCode(String[] codeTable, LinkedBinaryTree<Character> v, Position<Character> p, String code) {
+	/* stores the depth of every leaf under p in lengths and returns the deepest one */
+	int depths(LinkedBinaryTree<Character> v, Position<Character> p, int depth, byte[] lengths) {
 		if(v.isExternal(p)) {
-			codeTable[p.getElement()] = code;
-		}
-		else {
-			buildCode(codeTable,v, v.left(p), code + '0');
-			buildCode(codeTable, v, v.right(p), code + '1');
+			lengths[p.getElement()] = (byte) Math.min(depth, 255); //only kept if it fits
+			return depth;
 		}
+		return Math.max(depths(v, v.left(p), depth + 1, lengths), depths(v, v.right(p), depth + 1, lengths));
 	}
 	
-	void writePrefixTree(LinkedBinaryTree<Character> v, Position<Character> p, DataOutputStream writer) {
-		if(v.isExternal(p)) {
-			try {
-				writer.write(1);
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
-			
-			try {
-				writer.write(p.getElement());
-			} catch (IllegalStateException | IOException e) {
-				e.printStackTrace();
-			}
+	/*
+	 * Numbers the codes canonically from their lengths. The first code of each
+	 * length is one past the last code of the length before, shifted left once,
+	 * and codes of the same length go up by one in byte value order.
+	 */
+	static int[] canonicalCodes(byte[] lengths) {
+		int[] count = new int[MAX_CODE_LENGTH + 1];
+		for(int i = 0; i < 256; i++) {
+			count[lengths[i]]++;
+		}
+		count[0] = 0;
+		
+		int[] next = new int[MAX_CODE_LENGTH + 1];
+		int code = 0;
+		for(int len = 1; len <= MAX_CODE_LENGTH; len++) {
+			code = (code + count[len - 1]) << 1;
+			next[len] = code;
 		}
-		else {
-			try {
-				writer.write(0);
-			} catch (IOException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
+		
+		int[] codes = new int[256];
+		for(int i = 0; i < 256; i++) {
+			if(lengths[i] > 0) {
+				codes[i] = next[lengths[i]]++;
 			}
-			
-			writePrefixTree(v, v.left(p), writer);
-			writePrefixTree(v, v.right(p), writer);
 		}
+		return codes;
 	}
 	
 	/**
@@ -149,10 +322,189 @@ public class Huffman {
 	 * 
 	 * @param inputFile : the compressed file
 	 * @param outputFile : the file that should be generated by the decode function using ascii code. 
+	 * @throws UncheckedIOException if a file can't be read or written
+	 * @throws IllegalArgumentException if the input is not a compressed file
 	 */
 	public void decode(String inputFile, String outputFile) {	
-		//TODO: implement the decode
-		return;
+		try {
+			decode(Paths.get(inputFile), Paths.get(outputFile));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Decode a compressed file back to the original data.
+	 * 
+	 * @param input the compressed file
+	 * @param output the decoded file, replaced if it exists
+	 * @return number of bytes decoded
+	 * @throws IOException if a file can't be read or written
+	 * @throws IllegalArgumentException if the input is not a compressed file
+	 */
+	public long decode(Path input, Path output) throws IOException {
+		try (FileChannel in = FileChannel.open(input);
+				FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+						StandardOpenOption.TRUNCATE_EXISTING)) {
+			return decode(in, out);
+		}
+	}
+	
+	/**
+	 * Decode compressed data from a stream. out is not flushed or closed.
+	 * 
+	 * @param in the compressed data
+	 * @param out where the decoded data goes
+	 * @return number of bytes decoded
+	 * @throws IOException if a stream can't be read or written
+	 * @throws IllegalArgumentException if the input is not compressed data
+	 */
+	public long decode(InputStream in, OutputStream out) throws IOException {
+		return decode(Channels.newChannel(in), Channels.newChannel(out));
+	}
+	
+	/**
+	 * Decode compressed data from a channel.
+	 * 
+	 * Every symbol is found with one probe of a lookup table indexed by the
+	 * next PRIMARY_BITS bits of input. Codes up to PRIMARY_BITS long are in
+	 * that table directly, copied into every slot that starts with the code.
+	 * For longer codes the slot points to a small secondary table indexed by
+	 * the bits after those, which costs one more probe. Input bits are kept in
+	 * a 64 bit buffer that is topped up 32 bits at a time.
+	 * 
+	 * @param in the compressed data
+	 * @param out where the decoded data goes
+	 * @return number of bytes decoded
+	 * @throws IOException if a channel can't be read or written
+	 * @throws IllegalArgumentException if the input is not compressed data
+	 */
+	public long decode(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+		ByteBuffer inBuf = ByteBuffer.allocate(BUFFER_SIZE);
+		while(inBuf.position() < 264) { //code lengths and original length
+			if(in.read(inBuf) == -1) {
+				throw new IllegalArgumentException();
+			}
+		}
+		inBuf.flip();
+		byte[] lengths = new byte[256];
+		inBuf.get(lengths);
+		long n = inBuf.getLong();
+		if(n < 0) {
+			throw new IllegalArgumentException();
+		}
+		
+		int[] codes = canonicalCodes(checkLengths(lengths));
+		int maxLen = 0;
+		for(int i = 0; i < 256; i++) {
+			maxLen = Math.max(maxLen, lengths[i]);
+		}
+		int sub = Math.max(maxLen - PRIMARY_BITS, 0); //index bits of each secondary table
+		int[] primary = new int[1 << PRIMARY_BITS];
+		int[] secondary = buildTables(lengths, codes, sub, primary);
+		
+		ByteBuffer outBuf = ByteBuffer.allocate(BUFFER_SIZE);
+		byte[] o = outBuf.array();
+		int oPos = 0;
+		long bitBuf = 0; //unread bits, the next one in the highest bit
+		int bitCount = 0;
+		boolean eof = false;
+		
+		for(long k = 0; k < n; k++) {
+			while(bitCount < MAX_CODE_LENGTH && !eof) { //top up the bit buffer
+				if(inBuf.remaining() < 4) {
+					inBuf.compact();
+					eof = in.read(inBuf) == -1;
+					inBuf.flip();
+				}
+				while(bitCount <= 32 && inBuf.remaining() >= 4) {
+					bitBuf |= (inBuf.getInt() & 0xFFFFFFFFL) << (32 - bitCount);
+					bitCount += 32;
+				}
+				while(bitCount <= 56 && inBuf.hasRemaining()) {
+					bitBuf |= (inBuf.get() & 0xFFL) << (56 - bitCount);
+					bitCount += 8;
+				}
+			}
+			
+			int e = primary[(int) (bitBuf >>> (64 - PRIMARY_BITS))];
+			if((e & 31) == POINTER) { //a long code, look at the bits after the first PRIMARY_BITS
+				e = secondary[(e >>> 5) + (int) ((bitBuf << PRIMARY_BITS) >>> (64 - sub))];
+			}
+			int len = e & 31;
+			if(len == 0 || len > bitCount) { //no code starts with these bits, or the input ran out
+				throw new IllegalArgumentException();
+			}
+			
+			if(oPos == o.length) {
+				outBuf.position(oPos);
+				flush(outBuf, out);
+				oPos = 0;
+			}
+			o[oPos++] = (byte) (e >>> 5);
+			bitBuf <<= len;
+			bitCount -= len;
+		}
+		outBuf.position(oPos);
+		flush(outBuf, out);
+		return n;
+	}
+	
+	/* makes sure the code lengths are in range and describe a prefix code */
+	private static byte[] checkLengths(byte[] lengths) throws IllegalArgumentException {
+		long kraft = 0; //sum of 2^(MAX_CODE_LENGTH - length), at most 2^MAX_CODE_LENGTH for a prefix code
+		for(int i = 0; i < 256; i++) {
+			if(lengths[i] < 0 || lengths[i] > MAX_CODE_LENGTH) {
+				throw new IllegalArgumentException();
+			}
+			if(lengths[i] > 0) {
+				kraft += 1L << (MAX_CODE_LENGTH - lengths[i]);
+			}
+		}
+		if(kraft > (1L << MAX_CODE_LENGTH)) {
+			throw new IllegalArgumentException();
+		}
+		return lengths;
+	}
+	
+	/*
+	 * Fills the primary table and returns the secondary tables, all in one
+	 * array. An entry is (symbol << 5) | length, or (offset << 5) | POINTER
+	 * for a primary slot whose codes are longer than PRIMARY_BITS. Slots no
+	 * code starts with stay 0.
+	 */
+	private static int[] buildTables(byte[] lengths, int[] codes, int sub, int[] primary) {
+		int[] secondary = new int[(sub == 0) ? 0 : 256 << sub];
+		int used = 0;
+		
+		for(int c = 0; c < 256; c++) {
+			int len = lengths[c];
+			if(len == 0) {
+				continue;
+			}
+			int entry = (c << 5) | len;
+			
+			if(len <= PRIMARY_BITS) { //every slot that starts with the code
+				int first = codes[c] << (PRIMARY_BITS - len);
+				for(int i = 0; i < (1 << (PRIMARY_BITS - len)); i++) {
+					primary[first + i] = entry;
+				}
+				continue;
+			}
+			
+			int prefix = codes[c] >>> (len - PRIMARY_BITS);
+			if(primary[prefix] == 0) { //first long code with this prefix, give it a table
+				primary[prefix] = (used << 5) | POINTER;
+				used += 1 << sub;
+			}
+			int table = primary[prefix] >>> 5;
+			int rest = len - PRIMARY_BITS; //bits of the code after the prefix
+			int first = table + ((codes[c] & ((1 << rest) - 1)) << (sub - rest));
+			for(int i = 0; i < (1 << (sub - rest)); i++) {
+				secondary[first + i] = entry;
+			}
+		}
+		return secondary;
 	}
 	
 	
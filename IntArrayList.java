@@ -0,0 +1,376 @@
+/**
+ * @author Giulio Vario
+ * gvario@mtu.edu
+ * CS2321
+ */
+package cs2321;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import net.datastructures.List;
+
+/**
+ * An array based list of primitive int values. It has the same interface as
+ * {@link ArrayList}, but the elements are kept in a int[] so nothing gets boxed
+ * when the primitive methods (getInt, setInt, addInt, removeInt) are used.
+ * The List methods are still there so this can be passed anywhere a
+ * List&lt;Integer&gt; is expected, they just box and unbox on the way through.
+ */
+public class IntArrayList implements List<Integer> {
+
+	private int[] data;
+	private int size;
+	private int capacity;
+
+	public IntArrayList() {
+		capacity = 16;
+		data = new int[capacity];
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of elements in the list.
+	 * 
+	 * @return number of elements in the list
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public int size() {
+		/*
+		 * TCJ
+		 * The method just returns an int variable, which is a primitive operation. This is constant time.
+		 */
+		return size;
+	}
+
+	/**
+	 * Tests whether the list is empty.
+	 * 
+	 * @return true if the list is empty, false otherwise
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public boolean isEmpty() {
+		/*
+		 * TCJ
+		 * The method returns a comparison, which is a primitive operation. This is constant time
+		 */
+		return size == 0;
+	}
+
+	/**
+	 * Returns (but does not remove) the int at index i.
+	 * 
+	 * @param i
+	 *            the index of the element to return
+	 * @return the value at the specified index
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()-1
+	 */
+	@TimeComplexity("O(1)")
+	public int getInt(int i) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * Method accesses an array and returns the value in that spot. This is a primitive operation, therefore constant time
+		 */
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		return data[i];
+	}
+
+	/**
+	 * Replaces the int at the specified index, and returns the value
+	 * previously stored.
+	 * 
+	 * @param i
+	 *            the index of the element to replace
+	 * @param e
+	 *            the new value to be stored
+	 * @return the previously stored value
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()-1
+	 */
+	@TimeComplexity("O(1)")
+	public int setInt(int i, int e) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * The method accesses data in an array and puts data in, which are both primitive 
+		 * operations. This means it is constant time and O(1)
+		 */
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+
+		int currElement = data[i]; //grab the current value
+		data[i] = e; //replace it with the new value
+
+		return currElement;
+	}
+
+	/**
+	 * Inserts the given int at the specified index of the list, shifting all
+	 * subsequent elements in the list one position further to make room.
+	 * 
+	 * @param i
+	 *            the index at which the new value should be stored
+	 * @param e
+	 *            the new value to be stored
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()
+	 */
+	@TimeComplexity("O(n)")
+	public void addInt(int i, int e) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * The elements get shifted over when a new one is being added
+		 * The worst case is that n elements are shifted over when i = 0
+		 * This makes the worst case of adding O(n)
+		 */
+		if (i < 0 || i > size) {
+			throw new IndexOutOfBoundsException();
+		}
+
+		// doubles array if trying to add past capacity
+		if (size == capacity) {
+			int newCapacity = capacity * 2;
+			int[] newArray = new int[newCapacity];
+			System.arraycopy(data, 0, newArray, 0, size);
+			data = newArray;
+			capacity = newCapacity;
+		}
+
+		// shift everything from i over by one in a single block copy
+		System.arraycopy(data, i, data, i + 1, size - i);
+
+		data[i] = e;
+		size++;
+	}
+
+	/**
+	 * Adds a int to the end of the list
+	 * 
+	 * @param e value to be added
+	 */
+	@TimeComplexity("O(1)")
+	public void addInt(int e) {
+		/*
+		 * TCJ
+		 * Adds a value to a free spot in the array, which is a primitive operation
+		 * making this constant time (amortized over the doublings). 
+		 */
+		addInt(size, e);
+	}
+
+	/**
+	 * Removes and returns the int at the given index, shifting all subsequent
+	 * elements in the list one position closer to the front.
+	 * 
+	 * @param i
+	 *            the index of the element to be removed
+	 * @return the value that had be stored at the given index
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()-1
+	 */
+	@TimeComplexity("O(n)")
+	public int removeInt(int i) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * all of the elements from i + 1 to the last one shift to the left
+		 * When i = 0, the worst case, there are n shifts so the worst case is
+		 * O(n).
+		 */
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+
+		int removed = data[i]; //grabs the value being removed
+
+		// close the gap in a single block copy
+		System.arraycopy(data, i + 1, data, i, size - i - 1);
+		size--;
+
+		return removed;
+	}
+
+	/**
+	 * Copies the values of the list into a new int[] of length size()
+	 * 
+	 * @return array holding the values of the list in order
+	 */
+	@TimeComplexity("O(n)")
+	public int[] toIntArray() {
+		/*
+		 * TCJ
+		 * Every one of the n values gets copied once
+		 */
+		int[] copy = new int[size];
+		System.arraycopy(data, 0, copy, 0, size);
+		return copy;
+	}
+
+	/**
+	 * Sorts the values in ascending order, in place. Works on the int[]
+	 * directly, so nothing is boxed and no comparator is called.
+	 */
+	@TimeComplexity("O(n lg n)")
+	public void sort() {
+		/*
+		 * TCJ
+		 * Arrays.sort on a primitive range is a dual pivot quicksort
+		 */
+		Arrays.sort(data, 0, size);
+	}
+
+	/**
+	 * Same as sort, but splits the work over every core for big lists.
+	 */
+	@TimeComplexity("O(n lg n)")
+	public void parallelSort() {
+		/*
+		 * TCJ
+		 * Arrays.parallelSort is a parallel merge of sorted pieces
+		 */
+		Arrays.parallelSort(data, 0, size);
+	}
+
+	/**
+	 * Boxed version of getInt so the class can be used as a List.
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public Integer get(int i) throws IndexOutOfBoundsException {
+		return getInt(i);
+	}
+
+	/**
+	 * Boxed version of setInt so the class can be used as a List.
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public Integer set(int i, Integer e) throws IndexOutOfBoundsException {
+		return setInt(i, e);
+	}
+
+	/**
+	 * Boxed version of addInt so the class can be used as a List.
+	 */
+	@TimeComplexity("O(n)")
+	@Override
+	public void add(int i, Integer e) throws IndexOutOfBoundsException {
+		addInt(i, e);
+	}
+
+	/**
+	 * Boxed version of removeInt so the class can be used as a List.
+	 */
+	@TimeComplexity("O(n)")
+	@Override
+	public Integer remove(int i) throws IndexOutOfBoundsException {
+		return removeInt(i);
+	}
+
+	/**
+	 * Returns an iterator of the elements stored in the list. The values are
+	 * boxed as they are handed out, use getInt in a loop to avoid that.
+	 * 
+	 * @return iterator of the list's elements
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public Iterator<Integer> iterator() {
+		/*
+		 * TCJ
+		 * This method returns a new iterator. This is a primitive operation that 
+		 * makes the best and worst case O(1).
+		 */
+		return new myIterator();
+	}
+
+	/**
+	 * Class that makes an iterator of the elements stored in the list
+	 */
+	private class myIterator implements Iterator<Integer> {
+
+		int cursor = 0;
+
+		@Override
+		public boolean hasNext() {
+			return cursor < size;
+		}
+
+		@Override
+		public Integer next() {
+			if (cursor >= size) {
+				throw new NoSuchElementException();
+			}
+			return data[cursor++];
+		}
+
+	}
+
+	/**
+	 * Adds a int to the start of the list
+	 * 
+	 * @param e value to be added
+	 */
+	@TimeComplexity("O(n)")
+	public void addFirst(int e) {
+		/*
+		 * TCJ
+		 * This is the worst case for the add method causing 
+		 * n elements to be shifted over making it O(n)
+		 */
+		addInt(0, e);
+	}
+
+	/**
+	 * Adds a int to the end of the list
+	 * 
+	 * @param e value to be added
+	 */
+	@TimeComplexity("O(1)")
+	public void addLast(int e) {
+		/*
+		 * TCJ
+		 * Adds a value to a free spot in the array, which is a primitive operation
+		 * making this constant time. 
+		 */
+		addInt(size, e);
+	}
+
+	/**
+	 * Removes the int in the first spot of the list
+	 * 
+	 * @return value removed
+	 * @throws IndexOutOfBoundsException if the list is empty
+	 */
+	@TimeComplexity("O(n)")
+	public int removeFirst() throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * This causes n elements to be shifted to the left making it the worst case
+		 * of O(n)
+		 */
+		return removeInt(0);
+	}
+
+	/**
+	 * Removes the int at the end of the list
+	 * 
+	 * @return value removed
+	 * @throws IndexOutOfBoundsException if the list is empty
+	 */
+	@TimeComplexity("O(1)")
+	public int removeLast() throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * Getting rid of the value at the end causes nothing to be shifted making 
+		 * this constant time
+		 */
+		return removeInt(size - 1);
+	}
+
+}
@@ -0,0 +1,370 @@
+package cs2321;
+
+import java.util.Comparator;
+
+import net.datastructures.*;
+
+/**
+ * A meldable adaptable priority queue based on a leftist heap. Every node
+ * stores its null path length (the distance to the nearest missing child), and
+ * the left child's is never smaller than the right child's. That keeps the
+ * right spine of the tree at most log n long, and merging two heaps only
+ * walks down the right spines, so two whole queues can be melded in O(log n).
+ *
+ * Entry handles stay valid through a meld. Instead of each node pointing to
+ * the queue it is in (which would mean touching every node of the smaller
+ * queue), nodes point to a small Home object, and melding just forwards the
+ * other queue's Home to this one, like union-find.
+ *
+ * Course: CS2321 Section ALL
+ * @author Giulio Vario
+ */
+public class LeftistHeapPQ<K,V> implements AdaptablePriorityQueue<K,V> {
+
+	private LNode<K,V> root;
+	private int size;
+	private Comparator<K> comp;
+	private Home home; //shared by every node in this queue
+
+	public LeftistHeapPQ() {
+		this(new DefaultComparator<K>());
+	}
+
+	public LeftistHeapPQ(Comparator<K> c) {
+		root = null;
+		size = 0;
+		comp = c;
+		home = new Home(this);
+	}
+
+	/**
+	 * Returns the size of the PQ
+	 *
+	 * @return size of PQ
+	 */
+	@TimeComplexity ("O(1)")
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if the PQ is empty
+	 *
+	 * @return true if PQ is empty, otherwise false
+	 */
+	@TimeComplexity ("O(1)")
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Inserts a new entry by merging it in as a one node heap
+	 *
+	 * @param K new key
+	 * @param V new value
+	 * @return entry inserted
+	 */
+	@TimeComplexity ("O(log n)")
+	@Override
+	public Entry<K,V> insert(K key, V value) throws IllegalArgumentException {
+		/*
+		 * TCJ
+		 * Merging only walks down the right spine, which is at most log n long
+		 */
+		checkKey(key);
+		LNode<K,V> node = new LNode<K,V>(home, key, value);
+		root = merge(root, node);
+		root.parent = null;
+		size++;
+		return node;
+	}
+
+	/**
+	 * Finds the minimum entry, which is always the root
+	 *
+	 * @return minimum entry, or null if the PQ is empty
+	 */
+	@TimeComplexity ("O(1)")
+	@Override
+	public Entry<K,V> min() {
+		return root;
+	}
+
+	/**
+	 * Removes the root and merges its two subtrees
+	 *
+	 * @return the removed entry, or null if the PQ is empty
+	 */
+	@TimeComplexity ("O(log n)")
+	@Override
+	public Entry<K,V> removeMin() {
+		/*
+		 * TCJ
+		 * One merge of the two subtrees, which walks their right spines
+		 */
+		if(root == null) {
+			return null;
+		}
+		LNode<K,V> removed = root;
+		detach(removed);
+		removed.home = null; //the entry is no longer in a queue
+		size--;
+		return removed;
+	}
+
+	/**
+	 * Removes selected entry. Its two subtrees are merged and put where it
+	 * was, then the null path lengths are fixed on the way up.
+	 *
+	 * @param entry to be removed
+	 */
+	@TimeComplexity ("O(log n)")
+	@Override
+	public void remove(Entry<K,V> entry) throws IllegalArgumentException {
+		/*
+		 * TCJ
+		 * One merge of the subtrees, then the fix up only continues while a null
+		 * path length changes, which is at most log n levels
+		 */
+		LNode<K,V> node = validate(entry);
+		detach(node);
+		node.home = null; //the entry is no longer in a queue
+		size--;
+	}
+
+	/**
+	 * Replaces key of the entry. A smaller key cuts the node (with its subtree)
+	 * out and merges it back in with the root. A bigger key takes the node out
+	 * on its own and merges it back in.
+	 *
+	 * @param entry to replace key of
+	 * @param K new key
+	 */
+	@TimeComplexity ("O(log n)")
+	@Override
+	public void replaceKey(Entry<K,V> entry, K key) throws IllegalArgumentException {
+		/*
+		 * TCJ
+		 * A cut or a detach followed by one merge, each O(log n)
+		 */
+		LNode<K,V> node = validate(entry);
+		checkKey(key);
+
+		if(comp.compare(key, node.key) <= 0) { //decrease, the subtree stays in order
+			node.key = key;
+			if(node != root) {
+				LNode<K,V> p = node.parent;
+				if(p.left == node) {
+					p.left = null;
+				} else {
+					p.right = null;
+				}
+				node.parent = null;
+				fixUp(p);
+				root = merge(root, node);
+				root.parent = null;
+			}
+			return;
+		}
+
+		detach(node); //increase, take the node out alone and put it back
+		node.key = key;
+		root = merge(root, node);
+		root.parent = null;
+	}
+
+	/**
+	 * Replaces the value of entry
+	 *
+	 * @param value to replace in entry
+	 * @param entry to replace value of
+	 */
+	@TimeComplexity ("O(1)")
+	@Override
+	public void replaceValue(Entry<K,V> entry, V value) throws IllegalArgumentException {
+		validate(entry).value = value;
+	}
+
+	/**
+	 * Moves every entry of other into this queue, leaving other empty. Entry
+	 * handles from other stay valid and now belong to this queue.
+	 *
+	 * @param other the queue to meld in, must use the same key order
+	 * @throws IllegalArgumentException if other is this queue
+	 */
+	@TimeComplexity ("O(log n)")
+	public void meld(LeftistHeapPQ<K,V> other) throws IllegalArgumentException {
+		/*
+		 * TCJ
+		 * One merge of the two roots walks both right spines, O(log n + log m).
+		 * Forwarding the Home is O(1).
+		 */
+		if(other == this) {
+			throw new IllegalArgumentException();
+		}
+
+		root = merge(root, other.root);
+		if(root != null) {
+			root.parent = null;
+		}
+		size += other.size;
+
+		other.home.heap = null;
+		other.home.next = home; //other's nodes now find their way to this queue
+		other.home = new Home(other);
+		other.root = null;
+		other.size = 0;
+	}
+
+	protected boolean checkKey(K key) throws IllegalArgumentException {
+		try {
+			return (comp.compare(key, key) == 0);
+		} catch(ClassCastException e) {
+			throw new IllegalArgumentException();
+		}
+	}
+
+	private LNode<K,V> validate(Entry<K,V> entry) throws IllegalArgumentException {
+		if(!(entry instanceof LNode)) { //check if entry is actually one of our nodes
+			throw new IllegalArgumentException();
+		}
+		LNode<K,V> node = (LNode<K,V>) entry;
+		if(node.home == null) { //already removed
+			throw new IllegalArgumentException();
+		}
+
+		//follow the forwarding chain and shorten it for next time
+		Home h = node.home;
+		while(h.next != null) {
+			if(h.next.next != null) {
+				h.next = h.next.next;
+			}
+			h = h.next;
+		}
+		node.home = h;
+
+		if(h.heap != this) { //in some other queue
+			throw new IllegalArgumentException();
+		}
+		return node;
+	}
+
+	/* takes node out of the tree and puts the merge of its children in its place */
+	private void detach(LNode<K,V> node) {
+		if(node.left != null) {
+			node.left.parent = null;
+		}
+		if(node.right != null) {
+			node.right.parent = null;
+		}
+		LNode<K,V> sub = merge(node.left, node.right);
+		LNode<K,V> p = node.parent;
+
+		if(sub != null) {
+			sub.parent = p;
+		}
+		if(p == null) {
+			root = sub;
+		} else {
+			if(p.left == node) {
+				p.left = sub;
+			} else {
+				p.right = sub;
+			}
+			fixUp(p);
+		}
+
+		node.left = null;
+		node.right = null;
+		node.parent = null;
+		node.npl = 1;
+	}
+
+	/* restores the leftist property from p up, stopping once a null path length doesn't change */
+	private void fixUp(LNode<K,V> p) {
+		while(p != null) {
+			if(npl(p.left) < npl(p.right)) {
+				LNode<K,V> temp = p.left;
+				p.left = p.right;
+				p.right = temp;
+			}
+			int newNpl = npl(p.right) + 1;
+			if(newNpl == p.npl) {
+				return;
+			}
+			p.npl = newNpl;
+			p = p.parent;
+		}
+	}
+
+	/* merges two leftist heaps and returns the new root, the caller sets the root's parent */
+	private LNode<K,V> merge(LNode<K,V> a, LNode<K,V> b) {
+		if(a == null) {
+			return b;
+		}
+		if(b == null) {
+			return a;
+		}
+		if(comp.compare(b.key, a.key) < 0) { //smaller root stays on top
+			LNode<K,V> temp = a;
+			a = b;
+			b = temp;
+		}
+
+		a.right = merge(a.right, b);
+		a.right.parent = a;
+
+		if(npl(a.left) < npl(a.right)) { //keep the shorter path on the right
+			LNode<K,V> temp = a.left;
+			a.left = a.right;
+			a.right = temp;
+		}
+		a.npl = npl(a.right) + 1;
+		return a;
+	}
+
+	private static int npl(LNode<?,?> node) {
+		return (node == null) ? 0 : node.npl;
+	}
+
+	/**
+	 * Which queue a group of nodes belongs to. After a meld, next points to the
+	 * Home of the queue they were melded into.
+	 */
+	static class Home {
+		private LeftistHeapPQ<?,?> heap;
+		private Home next;
+
+		Home(LeftistHeapPQ<?,?> heap) {
+			this.heap = heap;
+		}
+	}
+
+	static class LNode<K,V> implements Entry<K,V> {
+		private Home home; //null once the entry leaves the queue
+		private K key;
+		private V value;
+		private LNode<K,V> left;
+		private LNode<K,V> right;
+		private LNode<K,V> parent;
+		private int npl = 1; //null path length
+
+		LNode(Home home, K key, V value) {
+			this.home = home;
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		public K getKey() {
+			return key;
+		}
+
+		@Override
+		public V getValue() {
+			return value;
+		}
+	}
+}
@@ -0,0 +1,346 @@
+/**
+ * @author Giulio Vario
+ * gvario@mtu.edu
+ * CS2321
+ */
+package cs2321;
+
+import java.util.Arrays;
+
+/**
+ * A binary min heap of (long key, int value) pairs that never allocates once it
+ * has grown to its working size. Keys and values live in parallel primitive
+ * arrays and are compared with &lt; directly, so there is no boxing, no Entry
+ * objects and no comparator call.
+ *
+ * insert hands back an int id instead of an Entry. The id stays attached to the
+ * pair while it moves around the heap (an id to slot table is kept up to date
+ * on every move), so remove and replaceKey work like they do on
+ * {@link HeapPQ}. Once a pair leaves the heap its id is reused by a later
+ * insert.
+ */
+public class LongIntHeapPQ {
+
+	private long[] keys; //keys[s] is the key in heap slot s
+	private int[] values; //values[s] is the value in heap slot s
+	private int[] idAt; //idAt[s] is the id of the pair in heap slot s
+	private int[] slotOf; //slotOf[id] is the heap slot of id, or -1 if id is not in the heap
+	private int[] freeIds; //stack of ids that can be handed out again
+	private int freeCount;
+	private int nextId; //ids below this have been handed out at least once
+	private int size;
+
+	public LongIntHeapPQ() {
+		this(16);
+	}
+
+	/**
+	 * Makes an empty heap that can hold initialCapacity pairs before it has to
+	 * grow.
+	 *
+	 * @param initialCapacity starting size of the arrays
+	 * @throws IllegalArgumentException if initialCapacity is less than 1
+	 */
+	public LongIntHeapPQ(int initialCapacity) throws IllegalArgumentException {
+		if (initialCapacity < 1) {
+			throw new IllegalArgumentException();
+		}
+		keys = new long[initialCapacity];
+		values = new int[initialCapacity];
+		idAt = new int[initialCapacity];
+		slotOf = new int[initialCapacity];
+		freeIds = new int[initialCapacity];
+		freeCount = 0;
+		nextId = 0;
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of pairs in the heap
+	 *
+	 * @return size of the heap
+	 */
+	@TimeComplexity("O(1)")
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if the heap is empty
+	 *
+	 * @return true if the heap is empty, otherwise false
+	 */
+	@TimeComplexity("O(1)")
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Inserts a new pair and keeps heap order
+	 *
+	 * @param key the priority
+	 * @param value the payload
+	 * @return id of the new pair
+	 */
+	@TimeComplexity("O(log n)")
+	public int insert(long key, int value) {
+		/*
+		 * TCJ
+		 * The new pair is bubbled up at most log n levels. The arrays only grow
+		 * when full, which is amortized O(1).
+		 */
+		if (size == keys.length) {
+			grow();
+		}
+
+		int id = (freeCount > 0) ? freeIds[--freeCount] : nextId++;
+		keys[size] = key;
+		values[size] = value;
+		idAt[size] = id;
+		slotOf[id] = size;
+		size++;
+
+		upheap(size - 1);
+		return id;
+	}
+
+	/**
+	 * Returns the smallest key
+	 *
+	 * @return minimum key
+	 * @throws IllegalStateException if the heap is empty
+	 */
+	@TimeComplexity("O(1)")
+	public long minKey() throws IllegalStateException {
+		checkNotEmpty();
+		return keys[0];
+	}
+
+	/**
+	 * Returns the value paired with the smallest key
+	 *
+	 * @return value of the minimum pair
+	 * @throws IllegalStateException if the heap is empty
+	 */
+	@TimeComplexity("O(1)")
+	public int minValue() throws IllegalStateException {
+		checkNotEmpty();
+		return values[0];
+	}
+
+	/**
+	 * Returns the id of the pair with the smallest key
+	 *
+	 * @return id of the minimum pair
+	 * @throws IllegalStateException if the heap is empty
+	 */
+	@TimeComplexity("O(1)")
+	public int minId() throws IllegalStateException {
+		checkNotEmpty();
+		return idAt[0];
+	}
+
+	/**
+	 * Removes the pair with the smallest key. Read minKey first if the key is
+	 * needed too.
+	 *
+	 * @return value of the removed pair
+	 * @throws IllegalStateException if the heap is empty
+	 */
+	@TimeComplexity("O(log n)")
+	public int removeMin() throws IllegalStateException {
+		/*
+		 * TCJ
+		 * The last pair moves to the root and is bubbled down at most log n levels
+		 */
+		checkNotEmpty();
+		int value = values[0];
+		removeAt(0);
+		return value;
+	}
+
+	/**
+	 * Removes the pair with the given id from the heap
+	 *
+	 * @param id id returned by insert
+	 * @throws IllegalArgumentException if id is not in the heap
+	 */
+	@TimeComplexity("O(log n)")
+	public void remove(int id) throws IllegalArgumentException {
+		/*
+		 * TCJ
+		 * The last pair moves into the hole and is bubbled up or down at most
+		 * log n levels
+		 */
+		removeAt(validate(id));
+	}
+
+	/**
+	 * Changes the key of the pair with the given id and restores heap order
+	 *
+	 * @param id id returned by insert
+	 * @param key the new key
+	 * @throws IllegalArgumentException if id is not in the heap
+	 */
+	@TimeComplexity("O(log n)")
+	public void replaceKey(int id, long key) throws IllegalArgumentException {
+		/*
+		 * TCJ
+		 * The pair is bubbled up or down at most log n levels
+		 */
+		int s = validate(id);
+		long old = keys[s];
+		keys[s] = key;
+		if (key < old) {
+			upheap(s);
+		} else {
+			downheap(s);
+		}
+	}
+
+	/**
+	 * Changes the value of the pair with the given id
+	 *
+	 * @param id id returned by insert
+	 * @param value the new value
+	 * @throws IllegalArgumentException if id is not in the heap
+	 */
+	@TimeComplexity("O(1)")
+	public void replaceValue(int id, int value) throws IllegalArgumentException {
+		values[validate(id)] = value;
+	}
+
+	/**
+	 * Returns the key of the pair with the given id
+	 *
+	 * @param id id returned by insert
+	 * @return the key
+	 * @throws IllegalArgumentException if id is not in the heap
+	 */
+	@TimeComplexity("O(1)")
+	public long key(int id) throws IllegalArgumentException {
+		return keys[validate(id)];
+	}
+
+	/**
+	 * Returns the value of the pair with the given id
+	 *
+	 * @param id id returned by insert
+	 * @return the value
+	 * @throws IllegalArgumentException if id is not in the heap
+	 */
+	@TimeComplexity("O(1)")
+	public int value(int id) throws IllegalArgumentException {
+		return values[validate(id)];
+	}
+
+	/**
+	 * Checks if the pair with the given id is still in the heap
+	 *
+	 * @param id id returned by insert
+	 * @return true if it is in the heap
+	 */
+	@TimeComplexity("O(1)")
+	public boolean contains(int id) {
+		return id >= 0 && id < nextId && slotOf[id] >= 0;
+	}
+
+	/* takes out the pair in slot s and frees its id */
+	private void removeAt(int s) {
+		int id = idAt[s];
+		slotOf[id] = -1;
+		freeIds[freeCount++] = id;
+		size--;
+
+		if (s < size) { //move the last pair into the hole
+			keys[s] = keys[size];
+			values[s] = values[size];
+			idAt[s] = idAt[size];
+			slotOf[idAt[s]] = s;
+			if (s > 0 && keys[s] < keys[(s - 1) >>> 1]) {
+				upheap(s);
+			} else {
+				downheap(s);
+			}
+		}
+	}
+
+	/* hole based upheap, the moving pair is written once at the end */
+	private void upheap(int s) {
+		long k = keys[s];
+		int v = values[s];
+		int id = idAt[s];
+
+		while (s > 0) {
+			int p = (s - 1) >>> 1;
+			if (k >= keys[p]) {
+				break;
+			}
+			move(p, s);
+			s = p;
+		}
+
+		keys[s] = k;
+		values[s] = v;
+		idAt[s] = id;
+		slotOf[id] = s;
+	}
+
+	/* hole based downheap, the moving pair is written once at the end */
+	private void downheap(int s) {
+		long k = keys[s];
+		int v = values[s];
+		int id = idAt[s];
+
+		while (true) {
+			int c = 2 * s + 1;
+			if (c >= size) {
+				break;
+			}
+			if (c + 1 < size && keys[c + 1] < keys[c]) {
+				c++;
+			}
+			if (keys[c] >= k) {
+				break;
+			}
+			move(c, s);
+			s = c;
+		}
+
+		keys[s] = k;
+		values[s] = v;
+		idAt[s] = id;
+		slotOf[id] = s;
+	}
+
+	/* copies the pair in slot from into slot to */
+	private void move(int from, int to) {
+		keys[to] = keys[from];
+		values[to] = values[from];
+		idAt[to] = idAt[from];
+		slotOf[idAt[to]] = to;
+	}
+
+	private int validate(int id) throws IllegalArgumentException {
+		if (!contains(id)) {
+			throw new IllegalArgumentException();
+		}
+		return slotOf[id];
+	}
+
+	private void checkNotEmpty() throws IllegalStateException {
+		if (size == 0) {
+			throw new IllegalStateException();
+		}
+	}
+
+	/* doubles every array, ids never go past the number of slots so they grow together */
+	private void grow() {
+		int newCapacity = keys.length * 2;
+		keys = Arrays.copyOf(keys, newCapacity);
+		values = Arrays.copyOf(values, newCapacity);
+		idAt = Arrays.copyOf(idAt, newCapacity);
+		slotOf = Arrays.copyOf(slotOf, newCapacity);
+		freeIds = Arrays.copyOf(freeIds, newCapacity);
+	}
+}
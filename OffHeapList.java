@@ -0,0 +1,392 @@
+/**
+ * @author Giulio Vario
+ * gvario@mtu.edu
+ * CS2321
+ */
+package cs2321;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import net.datastructures.List;
+
+/**
+ * A list of fixed size records kept outside the Java heap. Every element is
+ * turned into recordSize() bytes by a {@link RecordCodec} and stored in direct
+ * ByteBuffers, so the garbage collector never has to look at them. Elements
+ * only become objects again when they are read with get.
+ *
+ * The records are split over pages of at most PAGE_BYTES bytes, since a single
+ * ByteBuffer can't go past 2GB. Pages are either plain direct buffers or, with
+ * the file constructor, memory mapped regions of a file that the OS can page
+ * in and out on its own.
+ *
+ * add and remove shift the records after i with one bulk ByteBuffer copy per
+ * page they span, not one record at a time. Once the list shrinks, pages past
+ * the last record are dropped, except for one spare so a list that hovers at a
+ * page boundary doesn't make and drop a page on every add and remove. A mapped
+ * file keeps its length until the list is closed.
+ */
+public class OffHeapList<E> implements List<E>, Closeable {
+
+	/** Upper bound on the bytes in one page */
+	public static final int PAGE_BYTES = 1 << 20;
+
+	private final RecordCodec<E> codec;
+	private final int recordSize;
+	private final int recordsPerPage;
+	private ArrayList<ByteBuffer> pages;
+	private FileChannel channel; //null unless backed by a file
+	private int size;
+
+	/**
+	 * Makes an empty list whose records live in direct memory.
+	 *
+	 * @param codec how to turn elements into bytes
+	 * @throws IllegalArgumentException if the record size is not positive or is
+	 *             bigger than a page
+	 */
+	public OffHeapList(RecordCodec<E> codec) throws IllegalArgumentException {
+		int rs = codec.recordSize();
+		if (rs <= 0 || rs > PAGE_BYTES) {
+			throw new IllegalArgumentException();
+		}
+		this.codec = codec;
+		recordSize = rs;
+		recordsPerPage = PAGE_BYTES / rs;
+		pages = new ArrayList<ByteBuffer>();
+		size = 0;
+	}
+
+	/**
+	 * Makes an empty list whose records live in a memory mapped file. The file
+	 * is created if needed and anything already in it is thrown away, it is
+	 * only used as backing storage for this list.
+	 *
+	 * @param codec how to turn elements into bytes
+	 * @param file the file to map
+	 * @throws IOException if the file can't be opened
+	 * @throws IllegalArgumentException if the record size is not positive or is
+	 *             bigger than a page
+	 */
+	public OffHeapList(RecordCodec<E> codec, Path file) throws IOException, IllegalArgumentException {
+		this(codec);
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	/**
+	 * Returns the number of elements in the list.
+	 *
+	 * @return number of elements in the list
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public int size() {
+		/*
+		 * TCJ
+		 * The method just returns an int variable, which is a primitive operation. This is constant time.
+		 */
+		return size;
+	}
+
+	/**
+	 * Tests whether the list is empty.
+	 *
+	 * @return true if the list is empty, false otherwise
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public boolean isEmpty() {
+		/*
+		 * TCJ
+		 * The method returns a comparison, which is a primitive operation. This is constant time
+		 */
+		return size == 0;
+	}
+
+	/**
+	 * Decodes and returns the element at index i.
+	 *
+	 * @param i
+	 *            the index of the element to return
+	 * @return a new copy of the element at the specified index
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()-1
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public E get(int i) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * Finding the page and offset is arithmetic, then one record is decoded.
+		 * This is constant time
+		 */
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		return codec.read(page(i), offset(i));
+	}
+
+	/**
+	 * Encodes e over the record at the specified index, and returns the element
+	 * previously stored.
+	 *
+	 * @param i
+	 *            the index of the element to replace
+	 * @param e
+	 *            the new element to be stored
+	 * @return the previously stored element
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()-1
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public E set(int i, E e) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * One record is decoded and one is encoded. This is constant time
+		 */
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		ByteBuffer p = page(i);
+		int off = offset(i);
+		E currElement = codec.read(p, off);
+		codec.write(p, off, e);
+		return currElement;
+	}
+
+	/**
+	 * Inserts the given element at the specified index of the list, shifting all
+	 * subsequent records one position further to make room.
+	 *
+	 * @param i
+	 *            the index at which the new element should be stored
+	 * @param e
+	 *            the new element to be stored
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()
+	 * @throws IllegalStateException
+	 *             if a new page of the mapped file can't be mapped
+	 */
+	@TimeComplexity("O(n)")
+	@Override
+	public void add(int i, E e) throws IndexOutOfBoundsException, IllegalStateException {
+		/*
+		 * TCJ
+		 * The records get shifted over when a new one is being added
+		 * The worst case is that n records are moved when i = 0
+		 */
+		if (i < 0 || i > size) {
+			throw new IndexOutOfBoundsException();
+		}
+
+		// add a page once the current ones are full
+		if (size == pages.size() * recordsPerPage) {
+			pages.addLast(newPage(pages.size()));
+		}
+
+		moveRecords(i, i + 1, size - i);
+
+		codec.write(page(i), offset(i), e);
+		size++;
+	}
+
+	/**
+	 * Removes and returns the element at the given index, shifting all subsequent
+	 * records one position closer to the front.
+	 *
+	 * @param i
+	 *            the index of the element to be removed
+	 * @return the element that had be stored at the given index
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()-1
+	 */
+	@TimeComplexity("O(n)")
+	@Override
+	public E remove(int i) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * all of the records from i + 1 to the last one shift to the left
+		 * When i = 0, the worst case, there are n moves so the worst case is
+		 * O(n).
+		 */
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+
+		E objectRemoved = codec.read(page(i), offset(i));
+
+		moveRecords(i + 1, i, size - i - 1);
+
+		size--;
+		dropSparePages();
+		return objectRemoved;
+	}
+
+	/**
+	 * Adds an element to the start of the list
+	 *
+	 * @param e element to be added
+	 */
+	@TimeComplexity("O(n)")
+	public void addFirst(E e) {
+		this.add(0, e);
+	}
+
+	/**
+	 * Adds an element to the end of the list
+	 *
+	 * @param e element to be added
+	 */
+	@TimeComplexity("O(1)")
+	public void addLast(E e) {
+		/*
+		 * TCJ
+		 * Encodes one record in the free spot after the last one, nothing is moved
+		 */
+		this.add(size, e);
+	}
+
+	/**
+	 * Removes the element in the first spot of the list
+	 *
+	 * @return element removed
+	 * @throws IndexOutOfBoundsException if the list is empty
+	 */
+	@TimeComplexity("O(n)")
+	public E removeFirst() throws IndexOutOfBoundsException {
+		return this.remove(0);
+	}
+
+	/**
+	 * Removes the element at the end of the list
+	 *
+	 * @return element removed
+	 * @throws IndexOutOfBoundsException if the list is empty
+	 */
+	@TimeComplexity("O(1)")
+	public E removeLast() throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * Decodes the last record, nothing is moved
+		 */
+		return this.remove(size - 1);
+	}
+
+	/**
+	 * Returns an iterator that decodes the elements one at a time.
+	 *
+	 * @return iterator of the list's elements
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public Iterator<E> iterator() {
+		return new myIterator();
+	}
+
+	/**
+	 * Class that makes an iterator of the elements stored in the list
+	 */
+	private class myIterator implements Iterator<E> {
+
+		int cursor = 0;
+
+		@Override
+		public boolean hasNext() {
+			return cursor < size;
+		}
+
+		@Override
+		public E next() {
+			if (cursor >= size) {
+				throw new NoSuchElementException();
+			}
+			return get(cursor++);
+		}
+
+	}
+
+	/**
+	 * Drops every page and closes the backing file, if there is one. The list is
+	 * empty afterwards. Mapped pages are unmapped by the JVM once they are
+	 * garbage collected.
+	 *
+	 * @throws IOException if the file can't be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		pages.clear();
+		size = 0;
+		if (channel != null) {
+			channel.close();
+			channel = null;
+		}
+	}
+
+	private ByteBuffer page(int i) {
+		return pages.get(i / recordsPerPage);
+	}
+
+	private int offset(int i) {
+		return (i % recordsPerPage) * recordSize;
+	}
+
+	/*
+	 * copies count records starting at from over the ones starting at to. Each
+	 * step copies the longest span that stays inside one source page and one
+	 * destination page. Moving up starts from the end and moving down from the
+	 * front, so a span is never overwritten before it is read.
+	 */
+	private void moveRecords(int from, int to, int count) {
+		if (to > from) {
+			while (count > 0) {
+				int room = Math.min((from + count - 1) % recordsPerPage, (to + count - 1) % recordsPerPage) + 1;
+				int len = Math.min(count, room);
+				count -= len;
+				copySpan(from + count, to + count, len);
+			}
+		} else {
+			while (count > 0) {
+				int len = Math.min(count, recordsPerPage - Math.max(from % recordsPerPage, to % recordsPerPage));
+				copySpan(from, to, len);
+				from += len;
+				to += len;
+				count -= len;
+			}
+		}
+	}
+
+	/* copies len records that sit in one page to a spot that sits in one page, the two may overlap */
+	private void copySpan(int from, int to, int len) {
+		page(to).put(offset(to), page(from).duplicate(), offset(from), len * recordSize);
+	}
+
+	/* drops the pages past the one holding the last record, keeping one empty page spare */
+	private void dropSparePages() {
+		int needed = (size + recordsPerPage - 1) / recordsPerPage;
+		while (pages.size() > needed + 1) {
+			pages.removeLast();
+		}
+	}
+
+	private ByteBuffer newPage(int index) throws IllegalStateException {
+		int bytes = recordsPerPage * recordSize;
+		if (channel == null) {
+			return ByteBuffer.allocateDirect(bytes);
+		}
+		try {
+			return channel.map(FileChannel.MapMode.READ_WRITE, (long) index * bytes, bytes);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -0,0 +1,133 @@
+package cs2321;
+
+import java.util.Random;
+
+import net.datastructures.AdaptablePriorityQueue;
+import net.datastructures.Entry;
+
+/**
+ * Runs Dijkstra's shortest paths on a synthetic road network with HeapPQ and
+ * with PairingHeapPQ, and prints how long each took.
+ *
+ * The road network is a side x side grid with random travel times, plus a few
+ * long "highway" edges between random intersections. Most relaxations lower a
+ * key that is already in the queue, which is the case pairing heaps are good
+ * at.
+ */
+public class PairingHeapBenchmark {
+
+	/* graph in compressed adjacency form, edges of vertex v are start[v] to start[v + 1] - 1 */
+	static int[] start;
+	static int[] target;
+	static int[] weight;
+
+	static void buildRoadGraph(int side, int highways, long seed) {
+		Random rand = new Random(seed);
+		int n = side * side;
+		int[] degree = new int[n];
+		int[][] edges = new int[4 * n + 2 * highways][];
+		int m = 0;
+
+		for (int r = 0; r < side; r++) {
+			for (int c = 0; c < side; c++) {
+				int v = r * side + c;
+				if (c + 1 < side) {
+					edges[m++] = new int[] { v, v + 1, 1 + rand.nextInt(100) };
+				}
+				if (r + 1 < side) {
+					edges[m++] = new int[] { v, v + side, 1 + rand.nextInt(100) };
+				}
+			}
+		}
+		for (int h = 0; h < highways; h++) {
+			int a = rand.nextInt(n);
+			int b = rand.nextInt(n);
+			edges[m++] = new int[] { a, b, 50 * side + rand.nextInt(100) };
+		}
+
+		// roads go both ways
+		for (int i = 0; i < m; i++) {
+			degree[edges[i][0]]++;
+			degree[edges[i][1]]++;
+		}
+		start = new int[n + 1];
+		for (int v = 0; v < n; v++) {
+			start[v + 1] = start[v] + degree[v];
+		}
+		target = new int[start[n]];
+		weight = new int[start[n]];
+		int[] fill = new int[n];
+		for (int i = 0; i < m; i++) {
+			int a = edges[i][0];
+			int b = edges[i][1];
+			target[start[a] + fill[a]] = b;
+			weight[start[a] + fill[a]++] = edges[i][2];
+			target[start[b] + fill[b]] = a;
+			weight[start[b] + fill[b]++] = edges[i][2];
+		}
+	}
+
+	/**
+	 * Dijkstra from vertex 0 using replaceKey for every improved distance.
+	 *
+	 * @return the distance array
+	 */
+	static long[] dijkstra(AdaptablePriorityQueue<Long, Integer> pq) {
+		int n = start.length - 1;
+		long[] dist = new long[n];
+		ArrayList<Entry<Long, Integer>> handle = new ArrayList<Entry<Long, Integer>>(n);
+		boolean[] done = new boolean[n];
+
+		for (int v = 0; v < n; v++) {
+			dist[v] = Long.MAX_VALUE;
+			handle.addLast(null);
+		}
+		dist[0] = 0;
+		handle.set(0, pq.insert(0L, 0));
+
+		while (!pq.isEmpty()) {
+			int u = pq.removeMin().getValue();
+			done[u] = true;
+			for (int e = start[u]; e < start[u + 1]; e++) {
+				int v = target[e];
+				long d = dist[u] + weight[e];
+				if (!done[v] && d < dist[v]) {
+					dist[v] = d;
+					if (handle.get(v) == null) {
+						handle.set(v, pq.insert(d, v));
+					} else {
+						pq.replaceKey(handle.get(v), d);
+					}
+				}
+			}
+		}
+		return dist;
+	}
+
+	@TimeComplexity("O(?)")
+	public static void main(String[] args) {
+		System.out.printf("%10s %14s %14s%n", "vertices", "HeapPQ", "PairingHeapPQ");
+
+		for (int side = 100; side <= 800; side *= 2) {
+			buildRoadGraph(side, side * 4, side);
+
+			// one untimed run of each to warm up the JIT
+			dijkstra(new HeapPQ<Long, Integer>());
+			dijkstra(new PairingHeapPQ<Long, Integer>());
+
+			long t0 = System.nanoTime();
+			long[] binary = dijkstra(new HeapPQ<Long, Integer>());
+			long t1 = System.nanoTime();
+			long[] pairing = dijkstra(new PairingHeapPQ<Long, Integer>());
+			long t2 = System.nanoTime();
+
+			for (int v = 0; v < binary.length; v++) {
+				if (binary[v] != pairing[v]) {
+					throw new IllegalStateException("distances differ at " + v);
+				}
+			}
+
+			System.out.printf("%10d %11.1f ms %11.1f ms%n", side * side, (t1 - t0) / 1e6, (t2 - t1) / 1e6);
+		}
+	}
+}
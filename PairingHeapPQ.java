@@ -0,0 +1,324 @@
+package cs2321;
+
+import java.util.Comparator;
+
+import net.datastructures.*;
+
+/**
+ * An adaptable priority queue based on a pairing heap. The heap is a tree of
+ * nodes where every node's key is no bigger than its children's keys. Each
+ * node points to its first child and its next sibling, so two heaps can be
+ * linked in O(1) by making the root with the larger key the first child of
+ * the other.
+ *
+ * insert and decreasing a key are O(1) (the node is just cut out and linked
+ * with the root), which makes this a better fit than {@link HeapPQ} for
+ * algorithms like Dijkstra that lower keys much more often than they remove
+ * the minimum. removeMin does all the cleanup and is amortized O(log n).
+ *
+ * Course: CS2321 Section ALL
+ * @author Giulio Vario
+ */
+public class PairingHeapPQ<K,V> implements AdaptablePriorityQueue<K,V> {
+
+	private PNode<K,V> root;
+	private int size;
+	private Comparator<K> comp;
+
+	public PairingHeapPQ() {
+		this(new DefaultComparator<K>());
+	}
+
+	public PairingHeapPQ(Comparator<K> c) {
+		root = null;
+		size = 0;
+		comp = c;
+	}
+
+	/**
+	 * Returns the size of the PQ
+	 *
+	 * @return size of PQ
+	 */
+	@TimeComplexity ("O(1)")
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if the PQ is empty
+	 *
+	 * @return true if PQ is empty, otherwise false
+	 */
+	@TimeComplexity ("O(1)")
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Inserts a new entry by linking it with the root
+	 *
+	 * @param K new key
+	 * @param V new value
+	 * @return entry inserted
+	 */
+	@TimeComplexity ("O(1)")
+	@Override
+	public Entry<K,V> insert(K key, V value) throws IllegalArgumentException {
+		/*
+		 * TCJ
+		 * One comparison and a few pointer changes to link the new node with
+		 * the root
+		 */
+		checkKey(key);
+		PNode<K,V> node = new PNode<K,V>(this, key, value);
+		root = link(root, node);
+		size++;
+		return node;
+	}
+
+	/**
+	 * Finds the minimum entry, which is always the root
+	 *
+	 * @return minimum entry, or null if the PQ is empty
+	 */
+	@TimeComplexity ("O(1)")
+	@Override
+	public Entry<K,V> min() {
+		return root;
+	}
+
+	/**
+	 * Removes the root and pairs up its children into a new heap
+	 *
+	 * @return the removed entry, or null if the PQ is empty
+	 */
+	@TimeComplexity ("O(log n)")
+	@Override
+	public Entry<K,V> removeMin() {
+		/*
+		 * TCJ
+		 * The root can have up to n - 1 children, but the two pass pairing
+		 * makes it amortized O(log n)
+		 */
+		if(root == null) {
+			return null;
+		}
+		PNode<K,V> removed = root;
+		root = mergePairs(removed.child);
+		removed.child = null;
+		removed.owner = null; //the entry is no longer in the heap
+		size--;
+		return removed;
+	}
+
+	/**
+	 * Removes selected entry. It is cut out of the tree, its children are
+	 * paired up into one heap and that heap is linked with the root.
+	 *
+	 * @param entry to be removed
+	 */
+	@TimeComplexity ("O(log n)")
+	@Override
+	public void remove(Entry<K,V> entry) throws IllegalArgumentException {
+		/*
+		 * TCJ
+		 * Same as removeMin, amortized O(log n)
+		 */
+		PNode<K,V> node = validate(entry);
+		if(node == root) {
+			removeMin();
+			return;
+		}
+
+		cut(node);
+		root = link(root, mergePairs(node.child));
+		node.child = null;
+		node.owner = null; //the entry is no longer in the heap
+		size--;
+	}
+
+	/**
+	 * Replaces key of the entry. A smaller key just cuts the node (with its
+	 * subtree) out and links it back with the root. A bigger key can break
+	 * the order with the node's children, so the children are split off and
+	 * paired up first.
+	 *
+	 * @param entry to replace key of
+	 * @param K new key
+	 */
+	@TimeComplexity ("O(log n)")
+	@Override
+	public void replaceKey(Entry<K,V> entry, K key) throws IllegalArgumentException {
+		/*
+		 * TCJ
+		 * Decreasing is O(1) worst case plus the amortized cost paid later by
+		 * removeMin, which works out to o(log n). Increasing pairs up the
+		 * children, which is amortized O(log n).
+		 */
+		PNode<K,V> node = validate(entry);
+		checkKey(key);
+
+		if(comp.compare(key, node.key) <= 0) { //decrease, the subtree stays in order
+			node.key = key;
+			if(node != root) {
+				cut(node);
+				root = link(root, node);
+			}
+			return;
+		}
+
+		//increase, take the node out alone and put it back with the new key
+		PNode<K,V> children = mergePairs(node.child);
+		node.child = null;
+		if(node == root) {
+			root = children;
+		} else {
+			cut(node);
+			root = link(root, children);
+		}
+		node.key = key;
+		root = link(root, node);
+	}
+
+	/**
+	 * Replaces the value of entry
+	 *
+	 * @param value to replace in entry
+	 * @param entry to replace value of
+	 */
+	@TimeComplexity ("O(1)")
+	@Override
+	public void replaceValue(Entry<K,V> entry, V value) throws IllegalArgumentException {
+		validate(entry).value = value;
+	}
+
+	protected boolean checkKey(K key) throws IllegalArgumentException {
+		try {
+			return (comp.compare(key, key) == 0);
+		} catch(ClassCastException e) {
+			throw new IllegalArgumentException();
+		}
+	}
+
+	private PNode<K,V> validate(Entry<K,V> entry) throws IllegalArgumentException {
+		if(!(entry instanceof PNode)) { //check if entry is actually one of our nodes
+			throw new IllegalArgumentException();
+		}
+		PNode<K,V> node = (PNode<K,V>) entry;
+		if(node.owner != this) { //check if the node is still in this heap
+			throw new IllegalArgumentException();
+		}
+		return node;
+	}
+
+	/*
+	 * Links two heap-ordered trees and returns the new root. The root with the
+	 * larger key becomes the first child of the other. Both arguments must be
+	 * roots with no siblings.
+	 */
+	private PNode<K,V> link(PNode<K,V> a, PNode<K,V> b) {
+		if(a == null) {
+			return b;
+		}
+		if(b == null) {
+			return a;
+		}
+		if(comp.compare(b.key, a.key) < 0) { //b wins, ties go to a
+			PNode<K,V> temp = a;
+			a = b;
+			b = temp;
+		}
+
+		b.sibling = a.child;
+		if(a.child != null) {
+			a.child.prev = b;
+		}
+		b.prev = a;
+		a.child = b;
+		return a;
+	}
+
+	/* detaches node (with its subtree) from its parent and siblings */
+	private void cut(PNode<K,V> node) {
+		if(node.prev.child == node) { //first child, prev is the parent
+			node.prev.child = node.sibling;
+		} else {
+			node.prev.sibling = node.sibling;
+		}
+		if(node.sibling != null) {
+			node.sibling.prev = node.prev;
+		}
+		node.prev = null;
+		node.sibling = null;
+	}
+
+	/*
+	 * The two pass pairing. First links the siblings in pairs from left to
+	 * right, then links the pairs together from right to left. Done with
+	 * loops instead of recursion, since the sibling list can be n long.
+	 */
+	private PNode<K,V> mergePairs(PNode<K,V> first) {
+		if(first == null) {
+			return null;
+		}
+
+		//first pass, the linked pairs are pushed on a stack through their sibling pointers
+		PNode<K,V> stack = null;
+		while(first != null) {
+			PNode<K,V> a = first;
+			PNode<K,V> b = a.sibling;
+			first = (b == null) ? null : b.sibling;
+
+			a.sibling = null;
+			a.prev = null;
+			if(b != null) {
+				b.sibling = null;
+				b.prev = null;
+				a = link(a, b);
+			}
+
+			a.sibling = stack;
+			stack = a;
+		}
+
+		//second pass, the stack pops the pairs from right to left
+		PNode<K,V> result = stack;
+		stack = stack.sibling;
+		result.sibling = null;
+		while(stack != null) {
+			PNode<K,V> next = stack.sibling;
+			stack.sibling = null;
+			result = link(result, stack);
+			stack = next;
+		}
+		return result;
+	}
+
+	static class PNode<K,V> implements Entry<K,V> {
+		private PairingHeapPQ<K,V> owner; //null once the node leaves the heap
+		private K key;
+		private V value;
+		private PNode<K,V> child; //first child
+		private PNode<K,V> sibling; //next sibling
+		private PNode<K,V> prev; //previous sibling, or the parent for a first child
+
+		PNode(PairingHeapPQ<K,V> owner, K key, V value) {
+			this.owner = owner;
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		public K getKey() {
+			return key;
+		}
+
+		@Override
+		public V getValue() {
+			return value;
+		}
+	}
+}
@@ -0,0 +1,320 @@
+package cs2321;
+
+import net.datastructures.*;
+
+/**
+ * An adaptable priority queue for non-negative long keys that are taken out
+ * in non-decreasing order (a monotone priority queue). No key in the queue may
+ * ever be smaller than the last minimum handed out by min or removeMin, which
+ * holds for things like merging frequencies in Huffman coding or Dijkstra with
+ * non-negative integer weights. Inserting or changing a key to something
+ * smaller than that throws an IllegalArgumentException.
+ *
+ * By default it is a radix heap. Entries go into 65 buckets by the highest bit
+ * in which their key differs from the last minimum. removeMin only has to
+ * look in bucket 0, and when that is empty the first non-empty bucket is
+ * spread out over the lower buckets. An entry can only move to a lower bucket,
+ * so the work per entry is O(log C) over its lifetime, where C is the largest
+ * key, and there are no key comparisons at all apart from that.
+ *
+ * If every key in the queue is known to be at most maxSpan above the last
+ * minimum (like Dijkstra with edge weights up to maxSpan), the queue can be
+ * made as a bucket queue instead: maxSpan + 1 buckets used as a ring, one per
+ * key value, which makes every operation O(1) apart from skipping empty
+ * buckets in removeMin.
+ *
+ * Course: CS2321 Section ALL
+ * @author Giulio Vario
+ */
+public class RadixHeapPQ<V> implements AdaptablePriorityQueue<Long,V> {
+
+	private ArrayList<RNode<V>>[] buckets;
+	private long last; //key of the last minimum handed out, no key may be smaller
+	private long maxSpan; //0 for a radix heap, otherwise the bucket queue span
+	private int size;
+
+	/**
+	 * Makes an empty radix heap.
+	 */
+	public RadixHeapPQ() {
+		buckets = newBuckets(65, 4);
+		last = 0;
+		maxSpan = 0;
+		size = 0;
+	}
+
+	/**
+	 * Makes an empty bucket queue for keys that are never more than maxSpan
+	 * above the last minimum.
+	 *
+	 * @param maxSpan largest possible distance between a key and the last minimum
+	 * @throws IllegalArgumentException if maxSpan is not between 1 and 2^24
+	 */
+	public RadixHeapPQ(int maxSpan) throws IllegalArgumentException {
+		if(maxSpan < 1 || maxSpan > (1 << 24)) {
+			throw new IllegalArgumentException();
+		}
+		buckets = newBuckets(maxSpan + 1, 1);
+		last = 0;
+		this.maxSpan = maxSpan;
+		size = 0;
+	}
+
+	/**
+	 * Returns the size of the PQ
+	 *
+	 * @return size of PQ
+	 */
+	@TimeComplexity ("O(1)")
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if the PQ is empty
+	 *
+	 * @return true if PQ is empty, otherwise false
+	 */
+	@TimeComplexity ("O(1)")
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Inserts a new entry into the bucket for its key
+	 *
+	 * @param Long new key, at least lastMinKey()
+	 * @param V new value
+	 * @return entry inserted
+	 * @throws IllegalArgumentException if the key is null, negative, smaller
+	 *             than lastMinKey() or past the bucket queue span
+	 */
+	@TimeComplexity ("O(1)")
+	@Override
+	public Entry<Long,V> insert(Long key, V value) throws IllegalArgumentException {
+		/*
+		 * TCJ
+		 * Finding the bucket is a couple of bit operations and adding to the end
+		 * of it is amortized O(1)
+		 */
+		checkKey(key);
+		RNode<V> node = new RNode<V>(this, key, value);
+		place(node);
+		size++;
+		return node;
+	}
+
+	/**
+	 * Finds the minimum entry. This may have to spread out a bucket first.
+	 *
+	 * @return minimum entry, or null if the PQ is empty
+	 */
+	@TimeComplexity ("O(log C)")
+	@Override
+	public Entry<Long,V> min() {
+		/*
+		 * TCJ
+		 * Same bucket work as removeMin, amortized O(log C)
+		 */
+		if(size == 0) {
+			return null;
+		}
+		ArrayList<RNode<V>> b = buckets[fillMinBucket()];
+		return b.get(b.size() - 1);
+	}
+
+	/**
+	 * Removes an entry with the minimum key
+	 *
+	 * @return the removed entry, or null if the PQ is empty
+	 */
+	@TimeComplexity ("O(log C)")
+	@Override
+	public Entry<Long,V> removeMin() {
+		/*
+		 * TCJ
+		 * Radix heap: every entry moves down a bucket at most 64 times over its
+		 * life, so the spreading is amortized O(log C). Bucket queue: at most
+		 * maxSpan empty buckets are skipped.
+		 */
+		if(size == 0) {
+			return null;
+		}
+		ArrayList<RNode<V>> b = buckets[fillMinBucket()];
+		RNode<V> removed = b.removeLast();
+		removed.owner = null; //the entry is no longer in the queue
+		size--;
+		return removed;
+	}
+
+	/**
+	 * Removes selected entry from its bucket
+	 *
+	 * @param entry to be removed
+	 */
+	@TimeComplexity ("O(1)")
+	@Override
+	public void remove(Entry<Long,V> entry) throws IllegalArgumentException {
+		RNode<V> node = validate(entry);
+		unplace(node);
+		node.owner = null; //the entry is no longer in the queue
+		size--;
+	}
+
+	/**
+	 * Replaces key of the entry and moves it to the bucket for the new key. The
+	 * new key can be bigger or smaller, as long as it is not below
+	 * lastMinKey().
+	 *
+	 * @param entry to replace key of
+	 * @param Long new key
+	 * @throws IllegalArgumentException if the entry is not in the queue or the
+	 *             key is not allowed (see insert)
+	 */
+	@TimeComplexity ("O(1)")
+	@Override
+	public void replaceKey(Entry<Long,V> entry, Long key) throws IllegalArgumentException {
+		RNode<V> node = validate(entry);
+		checkKey(key);
+		unplace(node);
+		node.key = key;
+		place(node);
+	}
+
+	/**
+	 * Replaces the value of entry
+	 *
+	 * @param value to replace in entry
+	 * @param entry to replace value of
+	 */
+	@TimeComplexity ("O(1)")
+	@Override
+	public void replaceValue(Entry<Long,V> entry, V value) throws IllegalArgumentException {
+		validate(entry).value = value;
+	}
+
+	/**
+	 * Returns the key of the last minimum handed out by min or removeMin (0 at
+	 * the start). Every key inserted from now on has to be at least this.
+	 *
+	 * @return the smallest allowed key
+	 */
+	@TimeComplexity ("O(1)")
+	public long lastMinKey() {
+		return last;
+	}
+
+	/*
+	 * Makes sure the bucket holding the minimum is the one removeMin looks at,
+	 * and returns its index. Moves last up to the minimum key.
+	 */
+	private int fillMinBucket() {
+		if(maxSpan > 0) { //bucket queue, walk the ring from last until a bucket has something
+			int i = (int) (last % buckets.length);
+			while(buckets[i].isEmpty()) {
+				i = (i + 1 == buckets.length) ? 0 : i + 1;
+				last++;
+			}
+			return i;
+		}
+
+		if(!buckets[0].isEmpty()) { //radix heap, bucket 0 only holds keys equal to last
+			return 0;
+		}
+
+		int i = 1;
+		while(buckets[i].isEmpty()) {
+			i++;
+		}
+
+		//the minimum of this bucket becomes the new last, then everything in it moves down
+		ArrayList<RNode<V>> b = buckets[i];
+		long min = b.get(0).key;
+		for(int j = 1; j < b.size(); j++) {
+			min = Math.min(min, b.get(j).key);
+		}
+		last = min;
+
+		for(int j = 0; j < b.size(); j++) {
+			place(b.get(j)); //every one lands in a bucket below i, so b is not touched
+		}
+		b.clear();
+		return 0;
+	}
+
+	/* n empty buckets that start out with room for capacity nodes each */
+	@SuppressWarnings("unchecked")
+	private static <V> ArrayList<RNode<V>>[] newBuckets(int n, int capacity) {
+		ArrayList<RNode<V>>[] b = (ArrayList<RNode<V>>[]) new ArrayList<?>[n];
+		for(int i = 0; i < n; i++) {
+			b[i] = new ArrayList<RNode<V>>(capacity);
+		}
+		return b;
+	}
+
+	/* adds the node to the end of the bucket for its key */
+	private void place(RNode<V> node) {
+		int i;
+		if(maxSpan > 0) {
+			i = (int) (node.key % buckets.length);
+		} else {
+			i = 64 - Long.numberOfLeadingZeros(node.key ^ last); //0 when the key equals last
+		}
+		node.bucket = i;
+		node.pos = buckets[i].size();
+		buckets[i].addLast(node);
+	}
+
+	/* takes the node out of its bucket by moving the bucket's last node into its spot */
+	private void unplace(RNode<V> node) {
+		ArrayList<RNode<V>> b = buckets[node.bucket];
+		RNode<V> moved = b.removeLast();
+		if(moved != node) {
+			b.set(node.pos, moved);
+			moved.pos = node.pos;
+		}
+	}
+
+	protected void checkKey(Long key) throws IllegalArgumentException {
+		if(key == null || key < last || (maxSpan > 0 && key - last > maxSpan)) {
+			throw new IllegalArgumentException();
+		}
+	}
+
+	private RNode<V> validate(Entry<Long,V> entry) throws IllegalArgumentException {
+		if(!(entry instanceof RNode)) {
+			throw new IllegalArgumentException();
+		}
+		RNode<V> node = (RNode<V>) entry;
+		if(node.owner != this) { //check if the entry is still in this queue
+			throw new IllegalArgumentException();
+		}
+		return node;
+	}
+
+	static class RNode<V> implements Entry<Long,V> {
+		private RadixHeapPQ<V> owner; //null once the entry leaves the queue
+		private long key;
+		private V value;
+		private int bucket; //which bucket it is in
+		private int pos; //where in that bucket
+
+		RNode(RadixHeapPQ<V> owner, long key, V value) {
+			this.owner = owner;
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		public Long getKey() {
+			return key;
+		}
+
+		@Override
+		public V getValue() {
+			return value;
+		}
+	}
+}
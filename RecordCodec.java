@@ -0,0 +1,56 @@
+package cs2321;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Turns an element into a fixed number of bytes and back. Used by
+ * {@link OffHeapList} to keep its elements outside the Java heap.
+ *
+ * Both methods use absolute positions, so they must not move the buffer's
+ * position or limit.
+ */
+public interface RecordCodec<E> {
+
+	/** Codec for a single long, 8 bytes */
+	RecordCodec<Long> LONG = new RecordCodec<Long>() {
+		public int recordSize() { return 8; }
+
+		public void write(ByteBuffer buf, int offset, Long e) { buf.putLong(offset, e); }
+
+		public Long read(ByteBuffer buf, int offset) { return buf.getLong(offset); }
+	};
+
+	/** Codec for a single int, 4 bytes */
+	RecordCodec<Integer> INT = new RecordCodec<Integer>() {
+		public int recordSize() { return 4; }
+
+		public void write(ByteBuffer buf, int offset, Integer e) { buf.putInt(offset, e); }
+
+		public Integer read(ByteBuffer buf, int offset) { return buf.getInt(offset); }
+	};
+
+	/**
+	 * Returns the number of bytes every record takes.
+	 *
+	 * @return record size in bytes, at least 1
+	 */
+	int recordSize();
+
+	/**
+	 * Writes e into buf starting at offset.
+	 *
+	 * @param buf buffer to write into
+	 * @param offset first byte of the record
+	 * @param e element to write
+	 */
+	void write(ByteBuffer buf, int offset, E e);
+
+	/**
+	 * Reads the record starting at offset back into an element.
+	 *
+	 * @param buf buffer to read from
+	 * @param offset first byte of the record
+	 * @return the element stored there
+	 */
+	E read(ByteBuffer buf, int offset);
+}
@@ -0,0 +1,307 @@
+/**
+ * @author Giulio Vario
+ * gvario@mtu.edu
+ * CS2321
+ */
+package cs2321;
+
+import java.util.Comparator;
+import java.util.Iterator;
+
+import net.datastructures.List;
+
+/**
+ * An {@link ArrayList} that keeps its elements sorted by a comparator, so that
+ * lookups can use binary search instead of walking the whole list.
+ *
+ * It can still be used as a plain List, but add and set throw an
+ * IllegalArgumentException if the element would break the order there. Use
+ * insertSorted to let the list pick the spot.
+ */
+public class SortedArrayList<E> implements List<E> {
+
+	private ArrayList<E> list;
+	private Comparator<? super E> comp;
+
+	public SortedArrayList() {
+		list = new ArrayList<E>();
+		comp = new DefaultComparator<E>();
+	}
+
+	public SortedArrayList(Comparator<? super E> c) {
+		list = new ArrayList<E>();
+		comp = c;
+	}
+
+	/**
+	 * Returns the number of elements in the list.
+	 *
+	 * @return number of elements in the list
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public int size() {
+		return list.size();
+	}
+
+	/**
+	 * Tests whether the list is empty.
+	 *
+	 * @return true if the list is empty, false otherwise
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public boolean isEmpty() {
+		return list.isEmpty();
+	}
+
+	/**
+	 * Returns (but does not remove) the element at index i.
+	 *
+	 * @param i the index of the element to return
+	 * @return the element at the specified index
+	 * @throws IndexOutOfBoundsException if the index is negative or greater than size()-1
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public E get(int i) throws IndexOutOfBoundsException {
+		if (i < 0 || i >= list.size()) {
+			throw new IndexOutOfBoundsException();
+		}
+		return list.get(i);
+	}
+
+	/**
+	 * Replaces the element at index i, as long as the new element still fits
+	 * between its neighbors.
+	 *
+	 * @param i the index of the element to replace
+	 * @param e the new element to be stored
+	 * @return the previously stored element
+	 * @throws IndexOutOfBoundsException if the index is negative or greater than size()-1
+	 * @throws IllegalArgumentException if e would break the sorted order
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public E set(int i, E e) throws IndexOutOfBoundsException, IllegalArgumentException {
+		/*
+		 * TCJ
+		 * Two comparisons with the neighbors and one array write
+		 */
+		if (i < 0 || i >= list.size()) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (!fits(i - 1, e, i + 1)) {
+			throw new IllegalArgumentException();
+		}
+		return list.set(i, e);
+	}
+
+	/**
+	 * Inserts e at index i, as long as it fits between the elements that will
+	 * end up on either side of it.
+	 *
+	 * @param i the index at which the new element should be stored
+	 * @param e the new element to be stored
+	 * @throws IndexOutOfBoundsException if the index is negative or greater than size()
+	 * @throws IllegalArgumentException if e would break the sorted order
+	 */
+	@TimeComplexity("O(n)")
+	@Override
+	public void add(int i, E e) throws IndexOutOfBoundsException, IllegalArgumentException {
+		/*
+		 * TCJ
+		 * Two comparisons, then the same shift as ArrayList.add
+		 */
+		if (i < 0 || i > list.size()) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (!fits(i - 1, e, i)) {
+			throw new IllegalArgumentException();
+		}
+		list.add(i, e);
+	}
+
+	/**
+	 * Removes and returns the element at the given index. Removing never breaks
+	 * the order.
+	 *
+	 * @param i the index of the element to be removed
+	 * @return the element that had be stored at the given index
+	 * @throws IndexOutOfBoundsException if the index is negative or greater than size()-1
+	 */
+	@TimeComplexity("O(n)")
+	@Override
+	public E remove(int i) throws IndexOutOfBoundsException {
+		return list.remove(i);
+	}
+
+	/**
+	 * Returns an iterator of the elements in sorted order.
+	 *
+	 * @return iterator of the list's elements
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public Iterator<E> iterator() {
+		return list.iterator();
+	}
+
+	/**
+	 * Looks for an element equal to key.
+	 *
+	 * @param key the element to look for
+	 * @return the index of an element equal to key if there is one, otherwise
+	 *         -(insertion point) - 1, where the insertion point is lowerBound(key)
+	 */
+	@TimeComplexity("O(lg n)")
+	public int binarySearch(E key) {
+		/*
+		 * TCJ
+		 * lowerBound halves the range every step, then one more comparison
+		 */
+		int i = lowerBound(key);
+		if (i < list.size() && comp.compare(list.get(i), key) == 0) {
+			return i;
+		}
+		return -i - 1;
+	}
+
+	/**
+	 * Finds the first index whose element is not less than key.
+	 *
+	 * @param key the element to compare against
+	 * @return index of the first element &gt;= key, or size() if there is none
+	 */
+	@TimeComplexity("O(lg n)")
+	public int lowerBound(E key) {
+		/*
+		 * TCJ
+		 * The range [lo, hi) is halved on every step, so there are lg n steps
+		 */
+		int lo = 0;
+		int hi = list.size();
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (comp.compare(list.get(mid), key) < 0) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * Finds the first index whose element is greater than key.
+	 *
+	 * @param key the element to compare against
+	 * @return index of the first element &gt; key, or size() if there is none
+	 */
+	@TimeComplexity("O(lg n)")
+	public int upperBound(E key) {
+		/*
+		 * TCJ
+		 * The range [lo, hi) is halved on every step, so there are lg n steps
+		 */
+		int lo = 0;
+		int hi = list.size();
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (comp.compare(list.get(mid), key) <= 0) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * Inserts e where it belongs. It goes after any elements equal to it, so
+	 * equal elements stay in the order they were inserted.
+	 *
+	 * @param e the element to insert
+	 * @return the index e was stored at
+	 */
+	@TimeComplexity("O(n)")
+	public int insertSorted(E e) {
+		/*
+		 * TCJ
+		 * Finding the spot is O(lg n), then the elements after it are shifted
+		 * once as a block, which is O(n) in the worst case
+		 */
+		int i = upperBound(e);
+		list.add(i, e);
+		return i;
+	}
+
+	/**
+	 * Merges every element of other into this list. Both lists are already
+	 * sorted, so they are walked once side by side. Elements of this list come
+	 * before equal elements of other. other is not changed.
+	 *
+	 * The walk only works if other is sorted the same way. If the two lists
+	 * use different comparators, other's elements are appended and the whole
+	 * list is sorted once instead. The sort is stable, so elements of this
+	 * list still come before equal elements of other.
+	 *
+	 * @param other the sorted list to merge in
+	 */
+	@TimeComplexity("O((n + m) lg(n + m))")
+	public void mergeSorted(SortedArrayList<? extends E> other) {
+		/*
+		 * TCJ
+		 * With the same comparator every element of both lists is looked at and
+		 * copied once, O(n + m). With different ones, appending is O(m) and the
+		 * merge sort is O((n + m) lg(n + m)), which is the worst case.
+		 */
+		if (!sameOrder(other)) {
+			int m = other.size();
+			list.ensureCapacity(list.size() + m); //grow once for all of them
+			for (int j = 0; j < m; j++) {
+				list.addLast(other.get(j));
+			}
+			list.sort(comp);
+			return;
+		}
+
+		int n = list.size();
+		int m = other.size();
+		ArrayList<E> merged = new ArrayList<E>(n + m); //presized so it never grows
+
+		int i = 0;
+		int j = 0;
+		while (i < n && j < m) {
+			if (comp.compare(list.get(i), other.get(j)) <= 0) {
+				merged.addLast(list.get(i++));
+			} else {
+				merged.addLast(other.get(j++));
+			}
+		}
+		while (i < n) {
+			merged.addLast(list.get(i++));
+		}
+		while (j < m) {
+			merged.addLast(other.get(j++));
+		}
+
+		list = merged;
+	}
+
+	/* true if other is sorted by the same comparator, any two DefaultComparators count as the same */
+	private boolean sameOrder(SortedArrayList<?> other) {
+		if (comp == other.comp) {
+			return true;
+		}
+		return comp instanceof DefaultComparator && other.comp instanceof DefaultComparator;
+	}
+
+	/* checks that list[before] <= e <= list[after], ignoring indexes off either end */
+	private boolean fits(int before, E e, int after) {
+		if (before >= 0 && comp.compare(list.get(before), e) > 0) {
+			return false;
+		}
+		return after >= list.size() || comp.compare(e, list.get(after)) <= 0;
+	}
+}
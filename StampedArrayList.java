@@ -0,0 +1,326 @@
+/**
+ * @author Giulio Vario
+ * gvario@mtu.edu
+ * CS2321
+ */
+package cs2321;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.StampedLock;
+
+import net.datastructures.List;
+
+/**
+ * A thread safe array list for a mix of reads and writes. Changes take the
+ * write lock of a StampedLock. get and size first try an optimistic read, which
+ * takes no lock at all, and only fall back to the read lock if a writer got in
+ * while they were reading.
+ *
+ * Memory visibility: releasing the write lock happens-before any read lock or
+ * successfully validated optimistic read that comes after it, so a reader sees
+ * every change made by writers that finished before it. An optimistic read that
+ * overlaps a writer fails validation and is redone under the read lock, so a
+ * half finished change is never returned. Iterators work on a copy of the
+ * elements taken under the read lock.
+ */
+public class StampedArrayList<E> implements List<E> {
+
+	private E[] data;
+	private int size;
+	private final StampedLock lock = new StampedLock();
+
+	public StampedArrayList() {
+		this(16);
+	}
+
+	/**
+	 * Makes an empty list whose backing array can hold initialCapacity elements
+	 * before it has to grow.
+	 *
+	 * @param initialCapacity starting size of the backing array
+	 * @throws IllegalArgumentException if initialCapacity is negative
+	 */
+	public StampedArrayList(int initialCapacity) throws IllegalArgumentException {
+		if (initialCapacity < 0) {
+			throw new IllegalArgumentException();
+		}
+		data = (E[]) new Object[initialCapacity];
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of elements in the list.
+	 *
+	 * @return number of elements in the list
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public int size() {
+		/*
+		 * TCJ
+		 * An optimistic read of one field, redone under the read lock only if a
+		 * writer got in. This is constant time.
+		 */
+		long stamp = lock.tryOptimisticRead();
+		int s = size;
+		if (lock.validate(stamp)) {
+			return s;
+		}
+
+		stamp = lock.readLock();
+		try {
+			return size;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Tests whether the list is empty.
+	 *
+	 * @return true if the list is empty, false otherwise
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Returns (but does not remove) the element at index i.
+	 *
+	 * @param i
+	 *            the index of the element to return
+	 * @return the element at the specified index
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()-1
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public E get(int i) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * An optimistic read of the array, redone under the read lock only if a
+		 * writer got in. Either way it is one array access, so constant time.
+		 */
+		long stamp = lock.tryOptimisticRead();
+		E[] a = data;
+		int s = size;
+		// a writer may be halfway through, so only trust what we read once it validates
+		E e = (i >= 0 && i < s && i < a.length) ? a[i] : null;
+		if (lock.validate(stamp)) {
+			if (i < 0 || i >= s) {
+				throw new IndexOutOfBoundsException();
+			}
+			return e;
+		}
+
+		stamp = lock.readLock();
+		try {
+			if (i < 0 || i >= size) {
+				throw new IndexOutOfBoundsException();
+			}
+			return data[i];
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Replaces the element at the specified index, and returns the element
+	 * previously stored.
+	 *
+	 * @param i
+	 *            the index of the element to replace
+	 * @param e
+	 *            the new element to be stored
+	 * @return the previously stored element
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()-1
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public E set(int i, E e) throws IndexOutOfBoundsException {
+		long stamp = lock.writeLock();
+		try {
+			if (i < 0 || i >= size) {
+				throw new IndexOutOfBoundsException();
+			}
+			E currElement = data[i];
+			data[i] = e;
+			return currElement;
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Inserts the given element at the specified index of the list, shifting all
+	 * subsequent elements in the list one position further to make room.
+	 *
+	 * @param i
+	 *            the index at which the new element should be stored
+	 * @param e
+	 *            the new element to be stored
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()
+	 */
+	@TimeComplexity("O(n)")
+	@Override
+	public void add(int i, E e) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * Worst case is shifting all n elements when i = 0
+		 */
+		long stamp = lock.writeLock();
+		try {
+			addLocked(i, e);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Removes and returns the element at the given index, shifting all subsequent
+	 * elements in the list one position closer to the front.
+	 *
+	 * @param i
+	 *            the index of the element to be removed
+	 * @return the element that had be stored at the given index
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()-1
+	 */
+	@TimeComplexity("O(n)")
+	@Override
+	public E remove(int i) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * Worst case is shifting all n elements when i = 0
+		 */
+		long stamp = lock.writeLock();
+		try {
+			return removeLocked(i);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Adds an element to the start of the list
+	 *
+	 * @param e element to be added
+	 */
+	@TimeComplexity("O(n)")
+	public void addFirst(E e) {
+		this.add(0, e);
+	}
+
+	/**
+	 * Adds an element to the end of the list
+	 *
+	 * @param e element to be added
+	 */
+	@TimeComplexity("O(1)")
+	public void addLast(E e) {
+		long stamp = lock.writeLock();
+		try {
+			addLocked(size, e); //size is read under the lock, so this really is the end
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Removes the element in the first spot of the list
+	 *
+	 * @return element removed
+	 * @throws IndexOutOfBoundsException if the list is empty
+	 */
+	@TimeComplexity("O(n)")
+	public E removeFirst() throws IndexOutOfBoundsException {
+		return this.remove(0);
+	}
+
+	/**
+	 * Removes the element at the end of the list
+	 *
+	 * @return element removed
+	 * @throws IndexOutOfBoundsException if the list is empty
+	 */
+	@TimeComplexity("O(1)")
+	public E removeLast() throws IndexOutOfBoundsException {
+		long stamp = lock.writeLock();
+		try {
+			return removeLocked(size - 1);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Returns an iterator over a copy of the elements the list held when this
+	 * method was called. Later changes to the list do not show up in it.
+	 *
+	 * @return snapshot iterator of the list's elements
+	 */
+	@TimeComplexity("O(n)")
+	@Override
+	public Iterator<E> iterator() {
+		/*
+		 * TCJ
+		 * The n elements are copied under the read lock
+		 */
+		E[] snapshot;
+		long stamp = lock.readLock();
+		try {
+			snapshot = Arrays.copyOf(data, size);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+
+		return new Iterator<E>() {
+			int cursor = 0;
+
+			@Override
+			public boolean hasNext() {
+				return cursor < snapshot.length;
+			}
+
+			@Override
+			public E next() {
+				if (cursor >= snapshot.length) {
+					throw new NoSuchElementException();
+				}
+				return snapshot[cursor++];
+			}
+		};
+	}
+
+	/* add with the write lock already held */
+	private void addLocked(int i, E e) throws IndexOutOfBoundsException {
+		if (i < 0 || i > size) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (size == data.length) {
+			data = Arrays.copyOf(data, Math.max(16, data.length * 2));
+		}
+		System.arraycopy(data, i, data, i + 1, size - i);
+		data[i] = e;
+		size++;
+	}
+
+	/* remove with the write lock already held */
+	private E removeLocked(int i) throws IndexOutOfBoundsException {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		E objectRemoved = data[i];
+		System.arraycopy(data, i + 1, data, i, size - i - 1);
+		size--;
+		data[size] = null; //let go of the stale reference
+		return objectRemoved;
+	}
+
+}
@@ -0,0 +1,397 @@
+/**
+ * @author Giulio Vario
+ * gvario@mtu.edu
+ * CS2321
+ */
+package cs2321;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import net.datastructures.List;
+
+/**
+ * A tiered vector. The elements are split into chunks that each hold exactly
+ * chunkSize elements, except the last chunk which can hold fewer. Each chunk is
+ * a small ring buffer, so an element can be pushed on or popped off either end
+ * of a chunk in O(1).
+ *
+ * Since every chunk before the last one is full, element i is always in chunk
+ * i / chunkSize, which keeps get and set O(1). Inserting in the middle only
+ * shifts elements inside one chunk, then moves a single element from each later
+ * chunk to the next one. With chunkSize around sqrt(n) that is O(sqrt n) work
+ * instead of the O(n) shift that {@link ArrayList} has to do.
+ */
+public class TieredList<E> implements List<E> {
+
+	private ArrayList<Chunk<E>> chunks;
+	private int chunkSize;
+	private int size;
+
+	/**
+	 * Makes an empty list with chunks of 1024 elements, which suits lists of up
+	 * to about a million elements. Past that, middle inserts and removes cost
+	 * more and more, since the number of chunks grows with n.
+	 */
+	public TieredList() {
+		this(1024);
+	}
+
+	/**
+	 * Makes an empty list that stores its elements in chunks of the given size.
+	 * Middle inserts are fastest when chunkSize is close to the square root of
+	 * the number of elements the list will hold.
+	 *
+	 * @param chunkSize number of elements each chunk holds
+	 * @throws IllegalArgumentException if chunkSize is less than 1
+	 */
+	public TieredList(int chunkSize) throws IllegalArgumentException {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException();
+		}
+		this.chunkSize = chunkSize;
+		chunks = new ArrayList<Chunk<E>>();
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of elements in the list.
+	 *
+	 * @return number of elements in the list
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public int size() {
+		/*
+		 * TCJ
+		 * The method just returns an int variable, which is a primitive operation. This is constant time.
+		 */
+		return size;
+	}
+
+	/**
+	 * Tests whether the list is empty.
+	 *
+	 * @return true if the list is empty, false otherwise
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public boolean isEmpty() {
+		/*
+		 * TCJ
+		 * The method returns a comparison, which is a primitive operation. This is constant time
+		 */
+		return size == 0;
+	}
+
+	/**
+	 * Returns (but does not remove) the element at index i.
+	 *
+	 * @param i
+	 *            the index of the element to return
+	 * @return the element at the specified index
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()-1
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public E get(int i) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * One division finds the chunk and one array access inside the chunk
+		 * finds the element. This is constant time
+		 */
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		return chunks.get(i / chunkSize).get(i % chunkSize);
+	}
+
+	/**
+	 * Replaces the element at the specified index, and returns the element
+	 * previously stored.
+	 *
+	 * @param i
+	 *            the index of the element to replace
+	 * @param e
+	 *            the new element to be stored
+	 * @return the previously stored element
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()-1
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public E set(int i, E e) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * Same lookup as get followed by one array write. This is constant time
+		 */
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		return chunks.get(i / chunkSize).set(i % chunkSize, e);
+	}
+
+	/**
+	 * Inserts the given element at the specified index of the list. The chunk
+	 * holding index i makes room by shifting inside itself, and every later
+	 * chunk passes its last element on to the front of the next chunk.
+	 *
+	 * @param i
+	 *            the index at which the new element should be stored
+	 * @param e
+	 *            the new element to be stored
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()
+	 */
+	@TimeComplexity("O(chunkSize + n / chunkSize)")
+	@Override
+	public void add(int i, E e) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * Shifting inside one chunk is at most chunkSize moves, and each of the
+		 * n / chunkSize later chunks does one O(1) ring buffer push and pop.
+		 * That is O(sqrt n) only when chunkSize is close to sqrt n. With a fixed
+		 * chunkSize the second part grows linearly with n.
+		 */
+		if (i < 0 || i > size) {
+			throw new IndexOutOfBoundsException();
+		}
+
+		// all chunks are full, so start a new one at the end
+		if (size == chunks.size() * chunkSize) {
+			chunks.addLast(new Chunk<E>(chunkSize));
+		}
+
+		int c = i / chunkSize;
+
+		// pass one element down the line from chunk c to the last chunk
+		for (int k = chunks.size() - 1; k > c; k--) {
+			chunks.get(k).addFirst(chunks.get(k - 1).removeLast());
+		}
+
+		chunks.get(c).add(i % chunkSize, e);
+		size++;
+	}
+
+	/**
+	 * Removes and returns the element at the given index. The chunk holding
+	 * index i closes the gap inside itself, and every later chunk passes its
+	 * first element back to the end of the chunk before it.
+	 *
+	 * @param i
+	 *            the index of the element to be removed
+	 * @return the element that had be stored at the given index
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or greater than size()-1
+	 */
+	@TimeComplexity("O(chunkSize + n / chunkSize)")
+	@Override
+	public E remove(int i) throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * Same as add, at most chunkSize moves in one chunk and one O(1) move
+		 * per later chunk.
+		 */
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+
+		int c = i / chunkSize;
+		E objectRemoved = chunks.get(c).remove(i % chunkSize);
+
+		// pull one element back up the line so every chunk but the last stays full
+		for (int k = c + 1; k < chunks.size(); k++) {
+			chunks.get(k - 1).addLast(chunks.get(k).removeFirst());
+		}
+
+		if (chunks.get(chunks.size() - 1).isEmpty()) { //drop the last chunk once it drains
+			chunks.removeLast();
+		}
+
+		size--;
+		return objectRemoved;
+	}
+
+	/**
+	 * Adds an element to the start of the list
+	 *
+	 * @param e element to be added
+	 */
+	@TimeComplexity("O(n / chunkSize)")
+	public void addFirst(E e) {
+		/*
+		 * TCJ
+		 * No shifting inside the first chunk, but every chunk still passes one
+		 * element along, which is n / chunkSize steps.
+		 */
+		this.add(0, e);
+	}
+
+	/**
+	 * Adds an element to the end of the list
+	 *
+	 * @param e element to be added
+	 */
+	@TimeComplexity("O(1)")
+	public void addLast(E e) {
+		/*
+		 * TCJ
+		 * Only the last chunk is touched and nothing gets shifted
+		 */
+		this.add(size, e);
+	}
+
+	/**
+	 * Removes the element in the first spot of the list
+	 *
+	 * @return element removed
+	 * @throws IndexOutOfBoundsException if the list is empty
+	 */
+	@TimeComplexity("O(n / chunkSize)")
+	public E removeFirst() throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * Every chunk passes one element back, which is n / chunkSize steps.
+		 */
+		return this.remove(0);
+	}
+
+	/**
+	 * Removes the element at the end of the list
+	 *
+	 * @return element removed
+	 * @throws IndexOutOfBoundsException if the list is empty
+	 */
+	@TimeComplexity("O(1)")
+	public E removeLast() throws IndexOutOfBoundsException {
+		/*
+		 * TCJ
+		 * Only the last chunk is touched and nothing gets shifted
+		 */
+		return this.remove(size - 1);
+	}
+
+	/**
+	 * Returns an iterator of the elements stored in the list.
+	 *
+	 * @return iterator of the list's elements
+	 */
+	@TimeComplexity("O(1)")
+	@Override
+	public Iterator<E> iterator() {
+		/*
+		 * TCJ
+		 * This method returns a new iterator. This is a primitive operation that
+		 * makes the best and worst case O(1).
+		 */
+		return new myIterator();
+	}
+
+	/**
+	 * Class that makes an iterator of the elements stored in the list
+	 */
+	private class myIterator implements Iterator<E> {
+
+		int cursor = 0;
+
+		@Override
+		public boolean hasNext() {
+			return cursor < size;
+		}
+
+		@Override
+		public E next() {
+			if (cursor >= size) {
+				throw new NoSuchElementException();
+			}
+			return get(cursor++);
+		}
+
+	}
+
+	/**
+	 * A fixed size ring buffer holding one chunk of the list.
+	 */
+	private static class Chunk<E> {
+		private E[] items;
+		private int head; //array index of the first element of the chunk
+		private int count;
+
+		public Chunk(int capacity) {
+			items = (E[]) new Object[capacity];
+			head = 0;
+			count = 0;
+		}
+
+		public boolean isEmpty() {
+			return count == 0;
+		}
+
+		public E get(int j) {
+			return items[slot(j)];
+		}
+
+		public E set(int j, E e) {
+			int k = slot(j);
+			E old = items[k];
+			items[k] = e;
+			return old;
+		}
+
+		/* inserts at position j, the chunk must not be full */
+		public void add(int j, E e) {
+			for (int k = count; k > j; k--) {
+				items[slot(k)] = items[slot(k - 1)];
+			}
+			items[slot(j)] = e;
+			count++;
+		}
+
+		/* removes position j and closes the gap */
+		public E remove(int j) {
+			E old = items[slot(j)];
+			for (int k = j; k < count - 1; k++) {
+				items[slot(k)] = items[slot(k + 1)];
+			}
+			items[slot(count - 1)] = null;
+			count--;
+			return old;
+		}
+
+		/* the chunk must not be full */
+		public void addFirst(E e) {
+			head = (head == 0) ? items.length - 1 : head - 1;
+			items[head] = e;
+			count++;
+		}
+
+		/* the chunk must not be full */
+		public void addLast(E e) {
+			items[slot(count)] = e;
+			count++;
+		}
+
+		public E removeFirst() {
+			E old = items[head];
+			items[head] = null;
+			head = (head + 1 == items.length) ? 0 : head + 1;
+			count--;
+			return old;
+		}
+
+		public E removeLast() {
+			int k = slot(count - 1);
+			E old = items[k];
+			items[k] = null;
+			count--;
+			return old;
+		}
+
+		private int slot(int j) {
+			int k = head + j;
+			return (k >= items.length) ? k - items.length : k; //wrap around the end
+		}
+	}
+
+}
@@ -0,0 +1,76 @@
+package cs2321;
+
+import java.util.Random;
+
+import net.datastructures.List;
+
+/**
+ * Times middle inserts and indexed reads on ArrayList and TieredList at
+ * growing sizes, to show where the tiered list starts to win.
+ */
+public class TieredListBenchmark {
+
+	private static final int OPS = 2000; //middle inserts and removes per size
+
+	/**
+	 * Fills the list to n elements, then times OPS inserts at random indexes
+	 * followed by OPS removes at random indexes.
+	 *
+	 * @return nanoseconds per insert/remove
+	 */
+	static double timeMiddle(List<Integer> list, int n, long seed) {
+		for (int i = 0; i < n; i++) {
+			list.add(list.size(), i);
+		}
+
+		Random rand = new Random(seed);
+		long start = System.nanoTime();
+		for (int k = 0; k < OPS; k++) {
+			list.add(rand.nextInt(list.size() + 1), k);
+		}
+		for (int k = 0; k < OPS; k++) {
+			list.remove(rand.nextInt(list.size()));
+		}
+		return (System.nanoTime() - start) / (2.0 * OPS);
+	}
+
+	/**
+	 * Times n reads at random indexes.
+	 *
+	 * @return nanoseconds per get
+	 */
+	static double timeGet(List<Integer> list, long seed) {
+		Random rand = new Random(seed);
+		int n = list.size();
+		long sum = 0;
+		long start = System.nanoTime();
+		for (int k = 0; k < n; k++) {
+			sum += list.get(rand.nextInt(n));
+		}
+		double perGet = (System.nanoTime() - start) / (double) n;
+		if (sum == 42) { //keeps the loop from being optimized away
+			System.out.print("");
+		}
+		return perGet;
+	}
+
+	@TimeComplexity("O(?)")
+	public static void main(String[] args) {
+		System.out.printf("%10s %8s %16s %16s %14s %14s%n", "n", "chunk", "ArrayList ins", "Tiered ins",
+				"ArrayList get", "Tiered get");
+
+		for (int n = 1 << 10; n <= 1 << 22; n <<= 2) {
+			int chunk = Integer.highestOneBit((int) Math.sqrt(n)); //sqrt n rounded to a power of 2
+			ArrayList<Integer> array = new ArrayList<Integer>();
+			TieredList<Integer> tiered = new TieredList<Integer>(chunk);
+
+			double arrayIns = timeMiddle(array, n, n);
+			double tieredIns = timeMiddle(tiered, n, n);
+			double arrayGet = timeGet(array, n);
+			double tieredGet = timeGet(tiered, n);
+
+			System.out.printf("%10d %8d %13.1f ns %13.1f ns %11.1f ns %11.1f ns%n", n, chunk, arrayIns, tieredIns,
+					arrayGet, tieredGet);
+		}
+	}
+}
@@ -0,0 +1,466 @@
+package cs2321;
+
+import java.io.Closeable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import net.datastructures.*;
+
+/**
+ * Runs tasks after a delay, for things like timeouts and retries where most
+ * timers are cancelled or pushed back before they go off.
+ *
+ * Short timers go into a hierarchical timing wheel. It has LEVELS wheels of
+ * SLOTS slots each. A slot of level 0 covers one tick, a slot of level 1
+ * covers SLOTS ticks, and so on. A timer is linked into the slot its deadline
+ * falls in, at the lowest level that reaches that far, so scheduling and
+ * cancelling are O(1). Every time level 0 wraps around, the next slot of
+ * level 1 is emptied and its timers are put back in at lower levels (a
+ * cascade), and level 2 does the same for level 1.
+ *
+ * Timers too far out for the wheel go into a {@link HeapPQ} keyed by their
+ * deadline in nanoseconds. Cancelling one is a HeapPQ.remove and pushing it
+ * back is a HeapPQ.replaceKey, both O(log n).
+ *
+ * Deadlines are counted from when the service started rather than kept as raw
+ * System.nanoTime() values, so they are never negative and a - b between two
+ * of them cannot wrap. A delay too long to add to the current time is capped
+ * at Long.MAX_VALUE, which never comes.
+ *
+ * A single driver thread advances the wheel once per tick and takes expired
+ * timers off the heap. Everything that expired in one pass is collected
+ * first and then handed to the executor, outside the lock. Timers from the
+ * wheel go off at the first tick at or after their deadline.
+ *
+ * Course: CS2321 Section ALL
+ * @author Giulio Vario
+ */
+public class TimerService implements Closeable {
+
+	static final int SLOT_BITS = 6;
+	static final int SLOTS = 1 << SLOT_BITS;
+	static final int LEVELS = 3;
+
+	/** Tick length used by the default constructor, 1 ms */
+	public static final long DEFAULT_TICK_NANOS = 1000000;
+
+	private final Timeout[][] wheel = new Timeout[LEVELS][SLOTS]; //first timer in each slot
+	private final HeapPQ<Long, Timeout> far = new HeapPQ<Long, Timeout>(); //keyed by deadline, nanos since start
+	private final long tickNanos;
+	private final long start; //System.nanoTime() of tick 0
+	private long currentTick = 0; //last tick the wheel was advanced to
+	private int wheelCount = 0; //timers in the wheel
+
+	private final Executor executor;
+	private final boolean ownsExecutor; //true if close should shut the executor down
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition wake = lock.newCondition();
+	private long wakeAt = Long.MAX_VALUE; //when the driver plans to wake up next, nanos since start
+	private boolean closed = false;
+	private final Thread driver;
+
+	/**
+	 * Makes a timer service with 1 ms ticks that runs tasks on a fixed thread
+	 * pool with one thread per processor.
+	 */
+	public TimerService() {
+		this(DEFAULT_TICK_NANOS, Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()), true);
+	}
+
+	/**
+	 * Makes a timer service.
+	 *
+	 * @param tickNanos length of one wheel tick, timers go off up to one tick late
+	 * @param executor runs the expired tasks, it is not shut down by close
+	 * @throws IllegalArgumentException if tickNanos is not positive
+	 */
+	public TimerService(long tickNanos, Executor executor) throws IllegalArgumentException {
+		this(tickNanos, executor, false);
+	}
+
+	private TimerService(long tickNanos, Executor executor, boolean ownsExecutor) throws IllegalArgumentException {
+		if(tickNanos <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.tickNanos = tickNanos;
+		this.executor = executor;
+		this.ownsExecutor = ownsExecutor;
+		start = System.nanoTime();
+		driver = new Thread(this::drive, "cs2321-timer");
+		driver.setDaemon(true);
+		driver.start();
+	}
+
+	/**
+	 * Runs task once delay has passed.
+	 *
+	 * @param delay how long to wait, 0 or less means on the next tick
+	 * @param unit unit of delay
+	 * @param task the task to run
+	 * @return handle for cancelling or rescheduling the timer
+	 * @throws IllegalStateException if the service is closed
+	 */
+	@TimeComplexity ("O(log n)")
+	public Timeout schedule(long delay, TimeUnit unit, Runnable task) throws IllegalStateException {
+		/*
+		 * TCJ
+		 * O(1) into the wheel, O(log n) into the heap for far timers
+		 */
+		Timeout t = new Timeout(task);
+		lock.lock();
+		try {
+			if(closed) {
+				throw new IllegalStateException();
+			}
+			t.deadline = deadlineAfter(delay, unit);
+			place(t);
+		} finally {
+			lock.unlock();
+		}
+		return t;
+	}
+
+	/**
+	 * Stops a timer that has not gone off yet.
+	 *
+	 * @param t the timer
+	 * @return true if it was stopped, false if it had already gone off or been cancelled
+	 */
+	@TimeComplexity ("O(log n)")
+	public boolean cancel(Timeout t) {
+		/*
+		 * TCJ
+		 * Unlinking from a wheel slot is O(1), removing from the heap O(log n)
+		 */
+		lock.lock();
+		try {
+			if(t.owner != this || t.state == Timeout.DONE) {
+				return false;
+			}
+			unplace(t);
+			t.state = Timeout.DONE;
+			t.cancelled = true;
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Moves a timer that has not gone off yet to a new delay, counted from now.
+	 *
+	 * @param t the timer
+	 * @param delay new delay
+	 * @param unit unit of delay
+	 * @return true if it was moved, false if it had already gone off or been cancelled
+	 */
+	@TimeComplexity ("O(log n)")
+	public boolean reschedule(Timeout t, long delay, TimeUnit unit) {
+		/*
+		 * TCJ
+		 * A far timer that stays far is one HeapPQ.replaceKey, anything else is
+		 * a cancel and a schedule
+		 */
+		lock.lock();
+		try {
+			if(t.owner != this || t.state == Timeout.DONE) {
+				return false;
+			}
+			long deadline = deadlineAfter(delay, unit);
+			if(t.state == Timeout.IN_HEAP && level(tickOf(deadline)) == LEVELS) {
+				t.deadline = deadline;
+				far.replaceKey(t.entry, deadline);
+				signalIfEarlier(deadline);
+				return true;
+			}
+			unplace(t);
+			t.deadline = deadline;
+			place(t);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of timers that have not gone off or been cancelled
+	 *
+	 * @return number of pending timers
+	 */
+	@TimeComplexity ("O(1)")
+	public int pending() {
+		lock.lock();
+		try {
+			return wheelCount + far.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Stops the driver thread. Pending timers never go off. The executor is
+	 * shut down too if the service made it.
+	 */
+	@Override
+	public void close() {
+		lock.lock();
+		try {
+			closed = true;
+			wake.signal();
+		} finally {
+			lock.unlock();
+		}
+		if(ownsExecutor) {
+			((ExecutorService) executor).shutdown();
+		}
+	}
+
+	/* the driver thread, advances the wheel and hands each batch of expired timers to the executor */
+	private void drive() {
+		ArrayList<Runnable> batch = new ArrayList<Runnable>();
+		while(true) {
+			lock.lock();
+			try {
+				if(closed) {
+					return;
+				}
+				long now = System.nanoTime() - start;
+				long target = now / tickNanos;
+				if(wheelCount == 0) {
+					currentTick = Math.max(currentTick, target); //nothing to cascade, skip straight there
+				}
+				while(currentTick < target) {
+					advance(batch);
+				}
+				while(!far.isEmpty() && far.min().getKey() - now <= 0) {
+					expire(far.removeMin().getValue(), batch);
+				}
+
+				if(batch.isEmpty()) {
+					wakeAt = Long.MAX_VALUE;
+					if(wheelCount > 0) {
+						wakeAt = (currentTick + 1) * tickNanos;
+					}
+					if(!far.isEmpty()) {
+						wakeAt = Math.min(wakeAt, far.min().getKey());
+					}
+					try {
+						if(wakeAt == Long.MAX_VALUE) {
+							wake.await();
+						} else {
+							wake.awaitNanos(wakeAt - now);
+						}
+					} catch(InterruptedException e) {
+						return;
+					}
+					continue;
+				}
+			} finally {
+				lock.unlock();
+			}
+
+			for(int i = 0; i < batch.size(); i++) {
+				executor.execute(batch.get(i));
+			}
+			batch.clear();
+		}
+	}
+
+	/* moves the wheel forward one tick, cascading as needed, and collects the timers in the new slot */
+	private void advance(ArrayList<Runnable> batch) {
+		currentTick++;
+		if((currentTick & (SLOTS - 1)) == 0) { //level 0 wrapped, cascade from the top down
+			for(int level = LEVELS - 1; level >= 1; level--) {
+				if((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+					cascade(level, (int) ((currentTick >>> (SLOT_BITS * level)) & (SLOTS - 1)));
+				}
+			}
+		}
+
+		int slot = (int) (currentTick & (SLOTS - 1));
+		Timeout t = wheel[0][slot];
+		wheel[0][slot] = null;
+		while(t != null) {
+			Timeout next = t.next;
+			wheelCount--;
+			expire(t, batch);
+			t = next;
+		}
+	}
+
+	/* empties a slot of a higher level and puts its timers back in at the levels they belong in now */
+	private void cascade(int level, int slot) {
+		Timeout t = wheel[level][slot];
+		wheel[level][slot] = null;
+		while(t != null) {
+			Timeout next = t.next;
+			wheelCount--;
+			placeTick(t, t.tick);
+			t = next;
+		}
+	}
+
+	private void expire(Timeout t, ArrayList<Runnable> batch) {
+		t.state = Timeout.DONE;
+		t.prev = null;
+		t.next = null;
+		t.entry = null;
+		batch.addLast(t.task);
+	}
+
+	/* nanos since start at which delay from now is up, capped at Long.MAX_VALUE */
+	private long deadlineAfter(long delay, TimeUnit unit) {
+		long now = System.nanoTime() - start;
+		long d = unit.toNanos(Math.max(delay, 0)); //toNanos already caps at Long.MAX_VALUE
+		return (d > Long.MAX_VALUE - now) ? Long.MAX_VALUE : now + d;
+	}
+
+	/* first tick at or after the deadline, never earlier than the next tick */
+	private long tickOf(long deadline) {
+		long tick = deadline / tickNanos + ((deadline % tickNanos == 0) ? 0 : 1);
+		return Math.max(tick, currentTick + 1);
+	}
+
+	/* wheel level a tick belongs in, LEVELS if it is too far for the wheel */
+	private int level(long tick) {
+		long delta = tick - currentTick;
+		int level = 0;
+		while(level < LEVELS && delta >= (1L << (SLOT_BITS * (level + 1)))) {
+			level++;
+		}
+		return level;
+	}
+
+	private void place(Timeout t) {
+		long tick = tickOf(t.deadline);
+		if(level(tick) == LEVELS) {
+			t.state = Timeout.IN_HEAP;
+			t.entry = far.insert(t.deadline, t);
+			signalIfEarlier(t.deadline);
+			return;
+		}
+		if(wheelCount == 0) {
+			//the driver skips idle ticks, so catch up before using currentTick as the base
+			currentTick = Math.max(currentTick, (System.nanoTime() - start) / tickNanos);
+			tick = tickOf(t.deadline);
+		}
+		placeTick(t, tick);
+		signalIfEarlier(tick * tickNanos);
+	}
+
+	/* links the timer into the wheel slot for the given tick, which must be within the wheel */
+	private void placeTick(Timeout t, long tick) {
+		int level = level(tick);
+		int slot = (int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+		t.tick = tick;
+		t.level = level;
+		t.slot = slot;
+		t.state = Timeout.IN_WHEEL;
+		t.prev = null;
+		t.next = wheel[level][slot];
+		if(t.next != null) {
+			t.next.prev = t;
+		}
+		wheel[level][slot] = t;
+		wheelCount++;
+	}
+
+	/* takes a pending timer out of the wheel or the heap */
+	private void unplace(Timeout t) {
+		if(t.state == Timeout.IN_HEAP) {
+			far.remove(t.entry);
+			t.entry = null;
+			return;
+		}
+		if(t.prev == null) {
+			wheel[t.level][t.slot] = t.next;
+		} else {
+			t.prev.next = t.next;
+		}
+		if(t.next != null) {
+			t.next.prev = t.prev;
+		}
+		t.prev = null;
+		t.next = null;
+		wheelCount--;
+	}
+
+	private void signalIfEarlier(long time) {
+		if(time - wakeAt < 0) {
+			wakeAt = time;
+			wake.signal();
+		}
+	}
+
+	/**
+	 * Handle for one scheduled task.
+	 */
+	public class Timeout {
+		static final int IN_WHEEL = 0;
+		static final int IN_HEAP = 1;
+		static final int DONE = 2;
+
+		private final TimerService owner = TimerService.this;
+		private final Runnable task;
+		private long deadline; //when to go off, nanos since start
+		private int state;
+		private boolean cancelled = false;
+
+		//wheel position
+		private long tick;
+		private int level;
+		private int slot;
+		private Timeout prev;
+		private Timeout next;
+
+		private Entry<Long, Timeout> entry; //heap handle while in the heap
+
+		Timeout(Runnable task) {
+			this.task = task;
+		}
+
+		/**
+		 * Same as TimerService.cancel(this)
+		 *
+		 * @return true if the timer was stopped
+		 */
+		public boolean cancel() {
+			return owner.cancel(this);
+		}
+
+		/**
+		 * @return true if the timer was cancelled
+		 */
+		public boolean isCancelled() {
+			lock.lock();
+			try {
+				return cancelled;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * @return true if the task has been handed to the executor
+		 */
+		public boolean isExpired() {
+			lock.lock();
+			try {
+				return state == DONE && !cancelled;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * @return the task this timer runs
+		 */
+		public Runnable task() {
+			return task;
+		}
+	}
+}